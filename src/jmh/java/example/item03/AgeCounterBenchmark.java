@@ -0,0 +1,63 @@
+package example.item03;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ *  싱글턴 카운터를 여러 스레드가 동시에 증가시킬 때의 처리량을 비교한다.
+ *  - synchronizedIncrement : 락 하나
+ *  - atomicIncrement : 캐시 라인 하나를 두고 CAS
+ *  - stripedIncrement : AgeCounter (Elvis.addAge 와 같다)
+ *  - racyIncrement : 원래의 age++. 증가분을 잃어버리므로 정답은 아니고, 경합이 없을 때의 상한선으로만 본다.
+ *
+ *  스레드 수를 바꿔가며 실행한다.
+ *  for t in 1 2 4 8 16 32 64; do gradle jmh -Pjmh.includes=AgeCounterBenchmark -Pjmh.args="-t $t"; done
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgeCounterBenchmark {
+
+    private final Object lock = new Object();
+    private long lockedAge;
+    private final AtomicLong atomicAge = new AtomicLong();
+    private final AgeCounter stripedAge = new AgeCounter(1);
+    private int racyAge;
+
+    @Benchmark
+    public void synchronizedIncrement() {
+        synchronized (lock) {
+            lockedAge++;
+        }
+    }
+
+    @Benchmark
+    public void atomicIncrement() {
+        atomicAge.incrementAndGet();
+    }
+
+    @Benchmark
+    public void stripedIncrement() {
+        stripedAge.increment();
+    }
+
+    @Benchmark
+    public void racyIncrement() {
+        racyAge++;
+    }
+
+    @Benchmark
+    public long exactRead() {
+        return stripedAge.exact();
+    }
+
+    @Benchmark
+    public long approximateRead() {
+        return stripedAge.approximate();
+    }
+}
@@ -0,0 +1,84 @@
+package example.item05;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  WordStore(최소 오토마톤)와 HashSet<String> 의 조회 처리량(초당 조회 수)과 편집 거리 제안을 비교한다.
+ *  조회 단어의 절반은 사전에 있고 절반은 없다.
+ *  hashSetContains 는 같은 String 을 반복해서 조회하므로 해시값이 캐시되어 있다. 입력을 읽어 새로 만든 단어를 조회하는 경우는
+ *  hashSetContainsNewString 이 더 가깝다. (WordStore 는 CharSequence 를 받으므로 String 을 만들 필요가 없다.)
+ *  Setup 에서 단어당 메모리(WordStore 는 배열 크기)를 출력한다.
+ *
+ *  gradle jmh -Pjmh.includes=WordStoreBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordStoreBenchmark {
+
+    @Param({"100000"})
+    int words;
+
+    WordStore store;
+    Set<String> hashSet;
+    String[] queries;
+    char[][] queryChars;
+    String[] typos;
+    int next;
+
+    @Setup
+    public void setUp() {
+        List<String> list = Item5.sampleWords(words, 42);
+        store = WordStore.build(list);
+        hashSet = new HashSet<>(list);
+        System.out.printf("%n%d words, %d states, %d edges, %.1f bytes/word%n", store.size(), store.stateCount(),
+                store.edgeCount(), (double) store.sizeInBytes() / store.size());
+
+        Random random = new Random(7);
+        queries = new String[1024];
+        typos = new String[1024];
+        queryChars = new char[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            String word = list.get(random.nextInt(list.size()));
+            queries[i] = i % 2 == 0 ? word : word + "x";
+            queryChars[i] = queries[i].toCharArray();
+            char[] chars = word.toCharArray();
+            chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+            typos[i] = new String(chars);
+        }
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return hashSet.contains(queries[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean hashSetContainsNewString() {
+        return hashSet.contains(new String(queryChars[next++ & 1023]));
+    }
+
+    @Benchmark
+    public boolean wordStoreContains() {
+        return store.contains(queries[next++ & 1023]);
+    }
+
+    @Benchmark
+    public List<String> suggestionsDistance1() {
+        return store.suggestions(typos[next++ & 1023], 1, 10);
+    }
+
+    @Benchmark
+    public List<String> suggestionsDistance2() {
+        return store.suggestions(typos[next++ & 1023], 2, 10);
+    }
+}
@@ -0,0 +1,79 @@
+package example.item06;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  HashMap<Integer, Integer> 과 IntIntMap 의 put / get 을 비교한다.
+ *  키는 섞어 둔 무작위 int 다. (Integer 캐시 -128 ~ 127 밖이라 HashMap 쪽은 put 마다 Integer 를 만든다.)
+ *  할당량은 결과의 gc.alloc.rate.norm 으로 본다.
+ *
+ *  gradle jmh -Pjmh.includes=IntMapBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntMapBenchmark {
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    int[] keys;
+    Map<Integer, Integer> hashMap;
+    IntIntMap intMap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(6);
+        keys = random.ints(size).toArray();
+        hashMap = new HashMap<>();
+        intMap = new IntIntMap();
+        for (int key : keys) {
+            hashMap.put(key, key);
+            intMap.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> hashMapPut() {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public IntIntMap intMapPut() {
+        IntIntMap map = new IntIntMap();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public long hashMapGet() {
+        long sum = 0;
+        for (int key : keys) {
+            sum += hashMap.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long intMapGet() {
+        long sum = 0;
+        for (int key : keys) {
+            sum += intMap.get(key);
+        }
+        return sum;
+    }
+}
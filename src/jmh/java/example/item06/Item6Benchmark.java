@@ -0,0 +1,42 @@
+package example.item06;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  Item6.type_test 의 System.currentTimeMillis() 측정을 JMH로 옮겼다.
+ *  워밍업과 포크 없이 잰 시간은 JIT 컴파일 시점이나 GC에 따라 크게 흔들리므로 믿을 수 없다.
+ *  결과값을 반환해서 JIT이 루프 전체를 없애버리는 것(dead code elimination)을 막는다.
+ *
+ *  gradle jmh -Pjmh.includes=Item6Benchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Item6Benchmark {
+
+    @Param({"1000000", "100000000"})
+    long n;
+
+    @Benchmark
+    public Long boxedSum() {
+        Long sum = 0L;  // 박싱된 기본 타입
+        for (long i = 0; i <= n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveSum() {
+        long sum = 0L;  // 기본 타입
+        for (long i = 0; i <= n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+}
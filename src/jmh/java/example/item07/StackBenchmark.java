@@ -0,0 +1,84 @@
+package example.item07;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  1. 박싱되는 Item7.Stack 과 기본 타입 전용 IntStack (단일 스레드)
+ *  2. 여러 스레드가 push 후 pop 을 반복할 때 synchronized Stack, ConcurrentLinkedDeque, ConcurrentStack 의 처리량
+ *
+ *  gradle jmh -Pjmh.includes=StackBenchmark -Pjmh.args="-t 8"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmark {
+    private static final int SIZE = 1024;
+
+    @State(Scope.Thread)
+    public static class Local {
+        Item7.Stack stack = new Item7.Stack();
+        Item7.IntStack intStack = new Item7.IntStack();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int boxedStack(Local local) {
+        int sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            local.stack.push(i);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            sum += (Integer) local.stack.pop();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int intStack(Local local) {
+        int sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            local.intStack.push(i);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            sum += local.intStack.pop();
+        }
+        return sum;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final Item7.Stack synchronizedStack = new Item7.Stack();
+        final ConcurrentLinkedDeque<Object> deque = new ConcurrentLinkedDeque<>();
+        final ConcurrentStack<Object> concurrentStack = new ConcurrentStack<>();
+    }
+
+    private static final Object ITEM = new Object();
+
+    @Benchmark
+    public Object synchronizedStack(Shared shared) {
+        synchronized (shared.synchronizedStack) {
+            shared.synchronizedStack.push(ITEM);
+        }
+        synchronized (shared.synchronizedStack) {
+            return shared.synchronizedStack.pop();
+        }
+    }
+
+    @Benchmark
+    public Object concurrentLinkedDeque(Shared shared) {
+        shared.deque.push(ITEM);
+        return shared.deque.pop();
+    }
+
+    @Benchmark
+    public Object concurrentStack(Shared shared) {
+        shared.concurrentStack.push(ITEM);
+        return shared.concurrentStack.pop();
+    }
+}
@@ -0,0 +1,69 @@
+package example.item09;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  Item46 의 frequency.forEach(... println(key + " : " + value)) 처럼 "단어 : 숫자" 를 lines 줄 출력한다.
+ *  표준 출력 대신 /dev/null 에 쓰므로 터미널 속도와 상관없이 출력 경로의 비용만 잰다.
+ *  - printStream : System.out 과 같은 자동 flush PrintStream. 줄마다 문자열을 만들고 시스템 콜을 한다.
+ *  - printWriter : Item9 처럼 PrintWriter 로 감싼 경우 (자동 flush 없음)
+ *  - batchedOutput : BatchedOutput
+ *
+ *  gradle jmh -Pjmh.includes=OutputBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputBenchmark {
+    private static final Path NULL = Path.of("/dev/null");
+
+    @Param({"100000"})
+    int lines;
+
+    String[] words;
+
+    @Setup
+    public void setUp() {
+        words = new String[1024];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = "word" + i;
+        }
+    }
+
+    @Benchmark
+    public void printStream() throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(NULL.toFile()), true)) {
+            for (int i = 0; i < lines; i++) {
+                out.println(words[i & 1023] + " : " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void printWriter() throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileOutputStream(NULL.toFile()))) {
+            for (int i = 0; i < lines; i++) {
+                out.println(words[i & 1023] + " : " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void batchedOutput() throws IOException {
+        try (BatchedOutput out = new BatchedOutput(FileChannel.open(NULL, StandardOpenOption.WRITE),
+                BatchedOutput.DEFAULT_CAPACITY, true)) {
+            for (int i = 0; i < lines; i++) {
+                out.print(words[i & 1023]).print(" : ").println(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package example.item15;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ *  상품 10 만 개짜리 카탈로그에서, 쓰는 스레드가 1000 개씩 가격을 바꾸는 동안 읽는 스레드 셋이 가격을 읽는다.
+ *  - quiet : PriceCatalog 를 읽기만 한다. (비교 기준)
+ *  - swapping : PriceCatalog. 쓰는 쪽은 배열을 복사해 고친 뒤 스냅샷을 바꿔 끼운다.
+ *  - locked : 가변 배열 하나를 ReentrantReadWriteLock 으로 보호한다. 쓰는 동안 읽는 쪽은 기다린다.
+ *  읽는 쪽의 ops/us 를 비교한다. (쓰는 쪽의 결과는 그룹 결과에 따로 나온다.)
+ *
+ *  gradle jmh -Pjmh.includes=PriceCatalogBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class PriceCatalogBenchmark {
+    static final int SIZE = 100_000;
+    static final int BATCH = 1000;
+
+    PriceCatalog catalog;
+    int[] lockedPrices;
+    ReadWriteLock lock;
+
+    @Setup
+    public void setUp() throws PriceLimitException {
+        Item[] items = new Item[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            items[i] = new Item(i % 10000, i % 10000);
+        }
+        catalog = new PriceCatalog(items);
+        lockedPrices = catalog.snapshot().privatePrices();
+        lock = new ReentrantReadWriteLock();
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        int next;
+
+        int nextId() {
+            next = (next + 7919) % SIZE;  // 소수 간격으로 건너뛰며 캐시에 기대지 않게 한다.
+            return next;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        int[] ids;
+        int[] prices;
+        Random random = new Random(42);
+
+        @Setup
+        public void setUp() {
+            ids = random.ints(BATCH, 0, SIZE).toArray();
+            prices = new int[BATCH];
+        }
+
+        void nextBatch() {
+            Arrays.fill(prices, random.nextInt(10001));
+        }
+    }
+
+    @Benchmark
+    @Group("quiet")
+    @GroupThreads(3)
+    public int quietRead(Reader reader) {
+        return catalog.privatePrice(reader.nextId());
+    }
+
+    @Benchmark
+    @Group("swapping")
+    @GroupThreads(3)
+    public int swappingRead(Reader reader) {
+        return catalog.privatePrice(reader.nextId());
+    }
+
+    @Benchmark
+    @Group("swapping")
+    @GroupThreads(1)
+    public PriceCatalog.Snapshot swappingWrite(Writer writer) throws PriceLimitException {
+        writer.nextBatch();
+        return catalog.updatePrivatePrices(writer.ids, writer.prices);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public int lockedRead(Reader reader) {
+        int id = reader.nextId();
+        lock.readLock().lock();
+        try {
+            return lockedPrices[id];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite(Writer writer) {
+        writer.nextBatch();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < BATCH; i++) {
+                lockedPrices[writer.ids[i]] = writer.prices[i];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package example.item15;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  가격 100 만 개를 검사한다. 거부 비율(rejectPercent)에 따라
+ *  - throwing : Item.setPrivatePrice 로 하나씩, 거부마다 스택 트레이스를 채운 예외를 잡는다.
+ *  - stackless : 같은 경로에서 스택 트레이스 없는 예외를 쓴다.
+ *  - bulk : PriceValidation.validate 로 한 번에 검사한다.
+ *  - bulkApply : Item.setPrivatePrices 로 검사하고 통과한 가격을 반영한다. (throwing / stackless 와 하는 일이 같다.)
+ *
+ *  gradle jmh -Pjmh.includes=PriceValidationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceValidationBenchmark {
+
+    @Param({"0", "1", "10", "50"})
+    int rejectPercent;
+
+    int[] prices;
+    Item[] items;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new int[1_000_000];
+        items = new Item[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            boolean reject = random.nextInt(100) < rejectPercent;
+            prices[i] = reject ? (random.nextBoolean() ? -1 - random.nextInt(10000) : Item.MAX_PRICE + 1 + random.nextInt(10000))
+                    : random.nextInt(Item.MAX_PRICE + 1);
+            items[i] = new Item(0, 0);
+        }
+    }
+
+    @Benchmark
+    public int throwing() {
+        return setOneByOne(true);
+    }
+
+    @Benchmark
+    public int stackless() {
+        return setOneByOne(false);
+    }
+
+    private int setOneByOne(boolean captureStackTrace) {
+        int rejected = 0;
+        for (int i = 0; i < prices.length; i++) {
+            try {
+                items[i].setPrivatePrice(prices[i], captureStackTrace);
+            } catch (PriceLimitException e) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    @Benchmark
+    public PriceValidation bulk() {
+        return PriceValidation.validate(prices);
+    }
+
+    @Benchmark
+    public PriceValidation bulkApply() {
+        return Item.setPrivatePrices(items, prices);
+    }
+}
@@ -0,0 +1,94 @@
+package example.item17;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  불변 클래스 Complex의 사칙연산 비용을 측정한다.
+ *  연산마다 새 인스턴스를 만들기 때문에 gc 프로파일러의 gc.alloc.rate.norm 값을 함께 보자.
+ *
+ *  gradle jmh -Pjmh.includes=ComplexBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComplexBenchmark {
+
+    @Param({"1024"})
+    int size;
+
+    Complex[] xs;
+    Complex[] ys;
+    ComplexArray xa;
+    ComplexArray ya;
+    ComplexArray out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        xs = new Complex[size];
+        ys = new Complex[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = Complex.of(random.nextDouble(), random.nextDouble());
+            ys[i] = Complex.of(random.nextDouble() + 1, random.nextDouble() + 1);
+        }
+        xa = ComplexArray.of(xs);
+        ya = ComplexArray.of(ys);
+        out = new ComplexArray(size);
+    }
+
+    @Benchmark
+    public void plus(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(xs[i].plus(ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void times(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(xs[i].times(ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void dividedBy(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(xs[i].dividedBy(ys[i]));
+        }
+    }
+
+    // ComplexArray 는 결과 배열을 재사용하므로 할당이 없다.
+    @Benchmark
+    public ComplexArray arrayPlus() {
+        return ComplexArray.plus(xa, ya, out);
+    }
+
+    @Benchmark
+    public ComplexArray arrayTimes() {
+        return ComplexArray.times(xa, ya, out);
+    }
+
+    @Benchmark
+    public ComplexArray arrayDividedBy() {
+        return ComplexArray.dividedBy(xa, ya, out);
+    }
+
+    /*
+     *  중간 결과가 계속 새로 만들어지는 누적 연산. 실제 신호처리 루프와 가장 비슷한 형태이다.
+     */
+    @Benchmark
+    public Complex accumulate() {
+        Complex sum = Complex.ZERO;
+        for (int i = 0; i < size; i++) {
+            sum = sum.plus(xs[i].times(ys[i]));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,75 @@
+package example.item17;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  FFT(radix-2, Bluestein)와 O(n^2) DFT 를 비교한다.
+ *  1000 은 2의 거듭제곱이 아니므로 Bluestein 경로를 탄다.
+ *
+ *  gradle jmh -Pjmh.includes=FFTBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FFTBenchmark {
+
+    @Param({"1000", "1024"})
+    int size;
+
+    ComplexArray input;
+    ComplexArray work;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        input = new ComplexArray(size);
+        for (int i = 0; i < size; i++) {
+            input.set(i, random.nextGaussian(), random.nextGaussian());
+        }
+        work = new ComplexArray(size);
+    }
+
+    @Benchmark
+    public ComplexArray fft() {
+        System.arraycopy(input.real(), 0, work.real(), 0, size);
+        System.arraycopy(input.imaginary(), 0, work.imaginary(), 0, size);
+        FFT.transform(work);
+        return work;
+    }
+
+    @Benchmark
+    public ComplexArray naiveDft() {
+        return FFT.naiveDft(input);
+    }
+
+    /*
+     *  병렬 분할이 적용되는 큰 입력
+     */
+    @State(Scope.Thread)
+    public static class Large {
+        double[] re;
+        double[] im;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            Random random = new Random(42);
+            re = new double[1 << 20];
+            im = new double[1 << 20];
+            for (int i = 0; i < re.length; i++) {
+                re[i] = random.nextGaussian();
+            }
+        }
+    }
+
+    @Benchmark
+    public double[] largeFft(Large large) {
+        FFT.transform(large.re, large.im);
+        return large.re;
+    }
+}
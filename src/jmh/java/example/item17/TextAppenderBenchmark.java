@@ -0,0 +1,58 @@
+package example.item17;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  여러 스레드가 한 누적기에 문자열을 이어 붙일 때 StringBuffer 와 ConcurrentTextAppender 를 비교한다.
+ *  누적기가 끝없이 커지지 않도록 반복(iteration)마다 새로 만들고 닫는다. 스레드마다 APPENDS 번 이어 붙이는 시간을 잰다.
+ *
+ *  gradle jmh -Pjmh.includes=TextAppenderBenchmark -Pjmh.args="-t 1"
+ *  gradle jmh -Pjmh.includes=TextAppenderBenchmark -Pjmh.args="-t 64"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextAppenderBenchmark {
+    private static final int APPENDS = 100_000;
+    private static final String TEXT = "hello";
+
+    @Param({"StringBuffer", "PER_THREAD", "GLOBAL"})
+    String type;
+
+    StringBuffer buffer;
+    ConcurrentTextAppender appender;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        buffer = new StringBuffer();
+        if (!type.equals("StringBuffer")) {
+            appender = new ConcurrentTextAppender(ConcurrentTextAppender.Ordering.valueOf(type));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (appender != null) {
+            appender.close();
+        }
+    }
+
+    @Benchmark
+    public Object append() {
+        if (appender == null) {
+            for (int i = 0; i < APPENDS; i++) {
+                buffer.append(TEXT);
+            }
+            return buffer;
+        }
+        for (int i = 0; i < APPENDS; i++) {
+            appender.append(TEXT);
+        }
+        return appender;
+    }
+}
@@ -0,0 +1,139 @@
+package example.item23;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  도형 넓이의 합을 세 가지 배치로 비교한다.
+ *  - tagged : 태그 달린 Figure 배열. area() 안에서 switch 로 나뉜다.
+ *  - hierarchy : Item23 의 계층구조 배열. 호출 지점에서 본 구체 타입 수에 따라
+ *      monomorphic(Circle 만) -> 인라인, bimorphic(Circle, RECTANGLE) -> 타입 검사 두 번 후 인라인,
+ *      megamorphic(Square 까지 세 타입) -> 인라인하지 못하고 vtable 을 통한 가상 호출이 된다.
+ *  - columnar : FigureBatch. 객체도 호출도 없이 double[] 를 훑는다.
+ *  JMH 는 벤치마크마다 JVM 을 새로 띄우므로 호출 지점의 타입 프로파일이 벤치마크끼리 섞이지 않는다.
+ *  객체 배열은 섞어 두어서, 실제 서비스처럼 연속된 원소가 힙의 여기저기를 가리키게 한다.
+ *
+ *  gradle jmh -Pjmh.includes=FigureBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FigureBenchmark {
+
+    @Param({"1000000"})
+    int size;
+
+    Figure[] tagged;
+    Item23.Figure[] monomorphic;
+    Item23.Figure[] bimorphic;
+    Item23.Figure[] megamorphic;
+    FigureBatch batch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Figure> taggedList = new ArrayList<>(size);
+        List<Item23.Figure> circles = new ArrayList<>(size);
+        List<Item23.Figure> twoKinds = new ArrayList<>(size);
+        List<Item23.Figure> threeKinds = new ArrayList<>(size);
+        batch = new FigureBatch();
+        for (int i = 0; i < size; i++) {
+            double a = random.nextDouble() * 10, b = random.nextDouble() * 10;
+            circles.add(new Item23.Circle(a));
+            if (i % 2 == 0) {
+                taggedList.add(new Figure(a));
+                twoKinds.add(new Item23.Circle(a));
+                batch.addCircle(a);
+            } else {
+                taggedList.add(new Figure(a, b));
+                twoKinds.add(new Item23.RECTANGLE(a, b));
+                batch.addRectangle(a, b);
+            }
+            switch (i % 3) {
+                case 0:
+                    threeKinds.add(new Item23.Circle(a));
+                    break;
+                case 1:
+                    threeKinds.add(new Item23.RECTANGLE(a, b));
+                    break;
+                default:
+                    threeKinds.add(new Item23.Square(a));
+            }
+        }
+        tagged = shuffled(taggedList).toArray(new Figure[0]);
+        monomorphic = shuffled(circles).toArray(new Item23.Figure[0]);
+        bimorphic = shuffled(twoKinds).toArray(new Item23.Figure[0]);
+        megamorphic = shuffled(threeKinds).toArray(new Item23.Figure[0]);
+    }
+
+    private static <T> List<T> shuffled(List<T> list) {
+        Collections.shuffle(list, new Random(7));
+        return list;
+    }
+
+    @Benchmark
+    public double tagged() {
+        double sum = 0;
+        for (Figure figure : tagged) {
+            sum += figure.area();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double hierarchyMonomorphic() {
+        double sum = 0;
+        for (Item23.Figure figure : monomorphic) {
+            sum += figure.area();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double hierarchyBimorphic() {
+        double sum = 0;
+        for (Item23.Figure figure : bimorphic) {
+            sum += figure.area();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double hierarchyMegamorphic() {
+        double sum = 0;
+        for (Item23.Figure figure : megamorphic) {
+            sum += figure.area();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double columnar() {
+        return batch.totalArea();
+    }
+
+    @Benchmark
+    public double columnarAtLeast() {
+        return batch.totalAreaAtLeast(25);
+    }
+
+    @Benchmark
+    public double taggedAtLeast() {
+        double sum = 0;
+        for (Figure figure : tagged) {
+            double area = figure.area();
+            if (area >= 25) {
+                sum += area;
+            }
+        }
+        return sum;
+    }
+}
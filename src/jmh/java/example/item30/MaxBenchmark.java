@@ -0,0 +1,68 @@
+package example.item30;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ *  Item30.max(박싱된 Integer 와 compareTo)와 Reductions 의 기본 타입 / 병렬 버전을 비교한다.
+ *
+ *  gradle jmh -Pjmh.includes=MaxBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MaxBenchmark {
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    int[] ints;
+    List<Integer> boxed;
+
+    @Setup
+    public void setUp() {
+        ints = new Random(42).ints(size).toArray();
+        boxed = IntStream.of(ints).boxed().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Integer item30Max() {
+        return Item30.max(boxed);
+    }
+
+    @Benchmark
+    public Integer parallelMax() {
+        return Reductions.parallelMax(boxed);
+    }
+
+    @Benchmark
+    public int intStreamMax() {
+        return IntStream.of(ints).max().getAsInt();
+    }
+
+    @Benchmark
+    public int primitiveMax() {
+        return Reductions.max(ints);
+    }
+
+    @Benchmark
+    public int[] sortedTop10() {
+        int[] copy = ints.clone();
+        Arrays.sort(copy);
+        return Arrays.copyOfRange(copy, copy.length - 10, copy.length);
+    }
+
+    @Benchmark
+    public int[] heapTop10() {
+        return Reductions.topK(ints, 10);
+    }
+}
@@ -0,0 +1,67 @@
+package example.item31;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ *  Item31.union(기본 크기 HashSet + addAll)과 SetUnion 을 비교한다.
+ *  두 집합은 절반씩 겹친다. sorted* 는 같은 원소를 TreeSet 으로 넣었을 때다. (sortedTreeSet 은 결과도 정렬된 집합으로 만드는 기존 방식)
+ *
+ *  gradle jmh -Pjmh.includes=UnionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UnionBenchmark {
+
+    @Param({"100000", "2000000"})
+    int size;
+
+    Set<Integer> s1;
+    Set<Integer> s2;
+    TreeSet<Integer> sorted1;
+    TreeSet<Integer> sorted2;
+
+    @Setup
+    public void setUp() {
+        s1 = IntStream.range(0, size).boxed().collect(Collectors.toSet());
+        s2 = IntStream.range(size / 2, size + size / 2).boxed().collect(Collectors.toSet());
+        sorted1 = new TreeSet<>(s1);
+        sorted2 = new TreeSet<>(s2);
+    }
+
+    @Benchmark
+    public Set<Integer> item31() {
+        return Item31.union(s1, s2);
+    }
+
+    @Benchmark
+    public Set<Integer> setUnion() {
+        return SetUnion.union(s1, s2);
+    }
+
+    @Benchmark
+    public Set<Integer> sortedItem31() {
+        return Item31.union(sorted1, sorted2);
+    }
+
+    @Benchmark
+    public Set<Integer> sortedTreeSet() {
+        TreeSet<Integer> result = new TreeSet<>(sorted1);
+        result.addAll(sorted2);
+        return result;
+    }
+
+    @Benchmark
+    public Set<Integer> sortedSetUnion() {
+        return SetUnion.union(sorted1, sorted2);
+    }
+}
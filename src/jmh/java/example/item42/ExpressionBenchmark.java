@@ -0,0 +1,83 @@
+package example.item42;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  수식 (x + y) * (x - 2) / y 를 여러 행에 적용하는 세 가지 방법을 비교한다.
+ *  - interpreted : 행마다 트리를 해석한다. (노드마다 가상 호출 + 람다 호출)
+ *  - compiled    : 트리를 MethodHandle 하나로 합성해서 행마다 호출한다.
+ *  - batch       : 연산 하나씩 Operation.apply(double[], double[], double[]) 로 열 전체에 적용한다.
+ *
+ *  gradle jmh -Pjmh.includes=ExpressionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    @Param({"10000"})
+    int rows;
+
+    double[] xs;
+    double[] ys;
+    double[] twos;
+    double[] sum;
+    double[] difference;
+    double[] out;
+    Expression expression;
+    Expression.Compiled compiled;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        xs = new double[rows];
+        ys = new double[rows];
+        twos = new double[rows];
+        sum = new double[rows];
+        difference = new double[rows];
+        out = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble() + 1;
+            twos[i] = 2;
+        }
+
+        Expression x = Expression.variable(0);
+        Expression y = Expression.variable(1);
+        expression = Expression.of(Operation.DIVIDE,
+                Expression.of(Operation.TIMES,
+                        Expression.of(Operation.PLUS, x, y),
+                        Expression.of(Operation.MINUS, x, Expression.constant(2))),
+                y);
+        compiled = expression.compile();
+    }
+
+    @Benchmark
+    public double[] interpreted() {
+        for (int i = 0; i < rows; i++) {
+            out[i] = expression.evaluate(xs[i], ys[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] compiled() {
+        compiled.evaluate(new double[][]{xs, ys}, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        Operation.PLUS.apply(xs, ys, sum);
+        Operation.MINUS.apply(xs, twos, difference);
+        Operation.TIMES.apply(sum, difference, out);
+        Operation.DIVIDE.apply(out, ys, out);
+        return out;
+    }
+}
@@ -0,0 +1,77 @@
+package example.item42;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Comparator.comparingInt;
+
+/*
+ *  Item42.main 의 네 가지 정렬 방식(익명 클래스, 람다, 비교자 생성 메서드, List.sort)을 비교한다.
+ *  매 호출마다 정렬되지 않은 사본을 새로 만들어 정렬한다.
+ *
+ *  gradle jmh -Pjmh.includes=SortBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    @Param({"1000"})
+    int size;
+
+    List<String> words;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            char[] chars = new char[1 + random.nextInt(12)];
+            Arrays.fill(chars, 'a');
+            words.add(new String(chars));
+        }
+    }
+
+    @Benchmark
+    public List<String> anonymousClass() {
+        List<String> copy = new ArrayList<>(words);
+        Collections.sort(copy, new Comparator<String>() {
+            @Override
+            public int compare(String s1, String s2) {
+                return Integer.compare(s1.length(), s2.length());
+            }
+        });
+        return copy;
+    }
+
+    @Benchmark
+    public List<String> lambda() {
+        List<String> copy = new ArrayList<>(words);
+        Collections.sort(copy, (s1, s2) -> Integer.compare(s1.length(), s2.length()));
+        return copy;
+    }
+
+    @Benchmark
+    public List<String> comparatorConstruction() {
+        List<String> copy = new ArrayList<>(words);
+        Collections.sort(copy, comparingInt(String::length));
+        return copy;
+    }
+
+    @Benchmark
+    public List<String> listSort() {
+        List<String> copy = new ArrayList<>(words);
+        copy.sort(comparingInt(String::length));
+        return copy;
+    }
+}
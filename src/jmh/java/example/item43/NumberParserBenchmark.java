@@ -0,0 +1,71 @@
+package example.item43;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  Item43 의 .map(Integer::parseInt).mapToInt(i -> i) 와 NumberParser 를 비교한다.
+ *  - *List : 이미 String 으로 있는 숫자들의 합
+ *  - *File : 공백으로 구분된 숫자 파일을 읽어서 합 (Files.readAllLines + split 과 mmap 병렬 파싱)
+ *
+ *  gradle jmh -Pjmh.includes=NumberParserBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NumberParserBenchmark {
+
+    @Param({"1000000"})
+    int count;
+
+    List<String> numbers;
+    Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Integer.toString(random.nextInt());
+        }
+        numbers = Arrays.asList(values);
+        file = Files.createTempFile("numbers", ".txt");
+        Files.writeString(file, String.join("\n", numbers), StandardCharsets.US_ASCII);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long boxedList() {
+        return numbers.stream().map(Integer::parseInt).mapToLong(i -> i).sum();
+    }
+
+    @Benchmark
+    public long parserList() {
+        return numbers.stream().mapToLong(s -> NumberParser.parseInt(s, 0, s.length())).sum();
+    }
+
+    @Benchmark
+    public long boxedFile() throws IOException {
+        return Files.readAllLines(file).stream().map(Integer::parseInt).mapToLong(i -> i).sum();
+    }
+
+    @Benchmark
+    public long parserFile() throws IOException {
+        return NumberParser.ints(file).asLongStream().sum();
+    }
+}
@@ -0,0 +1,68 @@
+package example.item44;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  Collections.synchronizedMap(SizedMap) 과 ConcurrentSizedMap 의 처리량을 비교한다.
+ *  조회 90%, 쓰기 10% 비율이며 기본으로 모든 코어 수만큼의 스레드를 사용한다.
+ *
+ *  gradle jmh -Pjmh.includes=ConcurrentSizedMapBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentSizedMapBenchmark {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final int KEY_SPACE = 20_000;
+
+    @Param({"synchronized", "concurrent"})
+    String type;
+
+    Map<Integer, Integer> map;
+
+    @Setup
+    public void setUp() {
+        if (type.equals("synchronized")) {
+            map = Collections.synchronizedMap(new AccessOrderSizedMap<>());
+        } else {
+            map = ConcurrentSizedMap.withMaximumSize(MAXIMUM_SIZE);
+        }
+        for (int i = 0; i < MAXIMUM_SIZE; i++) {
+            map.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer readMostly() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(KEY_SPACE);
+        if (random.nextInt(10) == 0) {
+            return map.put(key, key);
+        }
+        return map.get(key);
+    }
+
+    /*
+     *  접근 순서로 정렬되는 SizedMap. (Item44.SizedMap 은 삽입 순서라 LRU 와 비교하기 위해 접근 순서로 만든다.)
+     */
+    static class AccessOrderSizedMap<K, V> extends LinkedHashMap<K, V> {
+        AccessOrderSizedMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > MAXIMUM_SIZE;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package example.item44;
+
+import example.item06.IntIntLruMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  Item44.main 의 put 루프를 그대로 측정한다.
+ *  removeEldestEntry 를 오버라이딩한 방식과 함수 객체를 넘기는 방식의 차이를 본다.
+ *  primitiveLruMap 은 같은 일을 박싱과 엔트리 할당 없이 하는 IntIntLruMap 이다.
+ *
+ *  gradle jmh -Pjmh.includes=SizedMapBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SizedMapBenchmark {
+
+    @Param({"1000", "100000"})
+    int puts;
+
+    @Benchmark
+    public Map<Integer, Integer> sizedMap() {
+        Item44.SizedMap<Integer, Integer> map = new Item44.SizedMap<>();
+        for (int i = 0; i < puts; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> biPredicateMap() {
+        MyLinkedHashMap<Integer, Integer> map = new MyLinkedHashMap<>((m, eldest) -> m.size() > 100);
+        for (int i = 0; i < puts; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> removalFunctionMap() {
+        MyLinkedHashMapV1<Integer, Integer> map = new MyLinkedHashMapV1<>((m, eldest) -> m.size() > 100);
+        for (int i = 0; i < puts; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public IntIntLruMap primitiveLruMap() {
+        IntIntLruMap map = new IntIntLruMap(100, false);
+        for (int i = 0; i < puts; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,130 @@
+package example.item46;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.comparing;
+
+/*
+ *  Item46 의 빈도표(groupingBy) 생성과 상위 단어 추출 단계를 따로 측정한다.
+ *  단어는 Zipf 분포와 비슷하게 앞쪽 단어가 자주 나오도록 만든다.
+ *  scannerFile 과 mappedFile 은 같은 단어들을 파일로 써두고 파일을 읽는 것부터 측정한다.
+ *  ...Interned 는 toLowerCase 대신 TokenInterner 를 쓴다. 할당량은 gc 프로파일러의 gc.alloc.rate.norm (B/op) 으로 비교한다.
+ *
+ *  gradle jmh -Pjmh.includes=FrequencyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrequencyBenchmark {
+
+    @Param({"100000"})
+    int tokens;
+
+    @Param({"10000"})
+    int vocabulary;
+
+    String[] words;
+    Map<String, Long> frequency;
+    Path file;
+    TokenInterner interner;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        words = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            int rank = (int) Math.pow(vocabulary, random.nextDouble()) - 1;
+            words[i] = (rank % 2 == 0 ? "Word" : "word") + rank;
+        }
+        frequency = Item46.frequency(Arrays.stream(words));
+        interner = new TokenInterner();
+        Item46.frequency(Arrays.stream(words), interner);  // 어휘를 미리 채워 둔 상태(오래 도는 서비스)를 잰다.
+
+        file = Files.createTempFile("frequency", ".txt");
+        Files.write(file, Arrays.asList(words), StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public Map<String, Long> frequency() {
+        return Item46.frequency(Arrays.stream(words));
+    }
+
+    @Benchmark
+    public Map<String, Long> frequencyInterned() {
+        return Item46.frequency(Arrays.stream(words), interner);
+    }
+
+    // 소문자 토큰을 그대로 들고 있어야 할 때 (색인 등). 인터닝하면 서로 다른 단어 수만큼의 String 만 붙잡는다.
+    @Benchmark
+    public String[] lowerCaseTokens() {
+        return Arrays.stream(words).map(String::toLowerCase).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public String[] lowerCaseTokensInterned() {
+        return Arrays.stream(words).map(interner::lowerCase).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Map<String, Long> scannerFile() throws IOException {
+        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
+            return Item46.frequency(scanner.tokens());
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> mappedFile() throws IOException {
+        return MappedWordCounter.frequency(file);
+    }
+
+    @Benchmark
+    public List<String> topWords() {
+        return Item46.topWords(frequency, 5);
+    }
+
+    // TopK 를 쓰기 전의 방식 (전체 정렬 + 비교마다 맵 조회)
+    @Benchmark
+    public List<String> sortedTopWords() {
+        return frequency.keySet()
+                .stream()
+                .sorted(comparing(frequency::get).reversed())
+                .limit(5)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Long>> spaceSavingTopWords() {
+        return Arrays.stream(words)
+                .map(String::toLowerCase)
+                .collect(SpaceSaving.collector(1_000))
+                .topK(5);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Long>> spaceSavingTopWordsInterned() {
+        return Arrays.stream(words)
+                .map(interner::lowerCase)
+                .collect(SpaceSaving.collector(1_000))
+                .topK(5);
+    }
+}
@@ -0,0 +1,58 @@
+package example.item03;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ *  싱글턴이 여러 스레드와 함께 쓰는 카운터.
+ *
+ *  Elvis 의 age++ 는 읽기-더하기-쓰기가 원자적이지 않아서 여러 스레드가 동시에 호출하면 증가분을 잃어버린다.
+ *  synchronized 로 막으면 잃어버리지는 않지만 모든 스레드가 락 하나를 두고 줄을 선다. AtomicLong 도 같은 캐시 라인 하나를 두고 CAS 경쟁을 한다.
+ *  LongAdder 는 경합이 생기면 값을 여러 셀(cell, 캐시 라인이 겹치지 않게 떨어뜨려 둔 칸)로 나눠 스레드마다 다른 셀을 증가시키므로 스레드 수만큼 처리량이 늘어난다.
+ *
+ *  - exact() : 모든 셀을 더한다. 증가가 모두 끝난 뒤라면 빠짐없는 정확한 값이다. (증가 중에 읽으면 그 사이의 증가는 포함될 수도, 안 될 수도 있다.)
+ *  - approximate() : 셀이 많으면 exact() 는 캐시 라인을 셀 수만큼 읽어야 한다.
+ *    자주 읽기만 하는 쪽(모니터링 등)을 위해 마지막으로 더한 값을 refreshEvery 번의 읽기 동안 재사용한다. 그동안의 증가는 반영되지 않는다.
+ *    시계를 읽지 않고 읽기 횟수로만 갱신 시점을 정하므로, 재사용할 때는 필드 두 개를 읽고 하나를 쓰는 것이 전부다.
+ *    읽기 횟수는 동기화하지 않는다. 여러 스레드가 동시에 읽으면 몇 번 빠질 수 있지만 갱신이 조금 늦거나 이를 뿐이다.
+ */
+final class AgeCounter {
+    private static final int DEFAULT_REFRESH_EVERY = 1024;
+
+    private final LongAdder cells = new LongAdder();
+    private final long initial;
+    private final int refreshEvery;
+
+    private volatile long cachedSum;
+    private int readsUntilRefresh;  // 0 이하가 되면 새로 더한다. (첫 approximate() 도 새로 더한다.)
+
+    AgeCounter(long initial) {
+        this(initial, DEFAULT_REFRESH_EVERY);
+    }
+
+    AgeCounter(long initial, int refreshEvery) {
+        if (refreshEvery <= 0) {
+            throw new IllegalArgumentException("refreshEvery 는 0 보다 커야 합니다: " + refreshEvery);
+        }
+        this.initial = initial;
+        this.refreshEvery = refreshEvery;
+        this.cachedSum = initial;
+    }
+
+    void increment() {
+        cells.increment();
+    }
+
+    long exact() {
+        return initial + cells.sum();
+    }
+
+    long approximate() {
+        if (readsUntilRefresh-- > 0) {
+            return cachedSum;
+        }
+        readsUntilRefresh = refreshEvery - 1;
+        long sum = exact();
+        cachedSum = sum;
+        return sum;
+    }
+}
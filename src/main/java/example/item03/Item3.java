@@ -2,7 +2,13 @@ package example.item03;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /*
 *   아이템 3. private 생성자나 열거 타입으로 싱글턴임을 보증하라.
@@ -67,6 +73,52 @@ public class Item3 {
 
         assertSame(instance5, instance6); // Test Success
     }
+
+    @Test
+    public void concurrentAddAgeTest() throws Exception {
+        int threads = 16;
+        int increments = 100_000;
+        int elvisBefore = Elvis.INSTANCE.getAge();
+        int enumBefore = ElvisEnum.INSTANCE.getAge();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < increments; i++) {
+                        Elvis.INSTANCE.addAge();
+                        ElvisEnum.INSTANCE.addAge();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 잃어버린 증가분이 없다.
+        assertEquals(elvisBefore + threads * increments, Elvis.INSTANCE.getAge());
+        assertEquals(enumBefore + threads * increments, ElvisEnum.INSTANCE.getAge());
+    }
+
+    @Test
+    public void approximateAgeTest() {
+        AgeCounter counter = new AgeCounter(1, 2);
+        assertEquals(1, counter.approximate());
+
+        counter.increment();
+        assertEquals(2, counter.exact());
+        assertEquals(1, counter.approximate());  // 아직 캐시된 값
+        assertEquals(2, counter.approximate());  // 두 번 읽은 뒤에는 새로 더한다.
+        assertTrue(ElvisEnum.INSTANCE.getApproximateAge() <= ElvisEnum.INSTANCE.getAge());
+    }
 }
 
 /*
@@ -76,8 +128,12 @@ public class Item3 {
 *   3. 열거 타입 방식의 싱글턴
 */
 
+/*
+*   싱글턴은 여러 스레드가 함께 쓰므로 age++ 같은 상태 변경은 증가분을 잃어버릴 수 있다. (위 3번 참고)
+*   그래서 age 는 스레드마다 다른 셀을 증가시키는 AgeCounter 에 담는다.
+*/
 class Elvis {
-    private int age = 1;
+    private final AgeCounter age = new AgeCounter(1);
 
     // 1번 방식
     public static final Elvis INSTANCE = new Elvis();
@@ -90,12 +146,18 @@ class Elvis {
 
     private Elvis() {}
 
+    // int 범위를 넘으면 ArithmeticException
     public int getAge() {
-        return age;
+        return Math.toIntExact(age.exact());
+    }
+
+    // 자주 읽기만 할 때. 마지막으로 더한 뒤의 증가(최대 1024 번의 읽기 동안)는 빠져 있을 수 있다.
+    public int getApproximateAge() {
+        return Math.toIntExact(age.approximate());
     }
 
     public void addAge() {
-        age++;
+        age.increment();
     }
 }
 
@@ -103,13 +165,19 @@ class Elvis {
 enum ElvisEnum {
     INSTANCE;
 
-    private int age = 1;
+    private final AgeCounter age = new AgeCounter(1);
 
+    // int 범위를 넘으면 ArithmeticException
     public int getAge() {
-        return age;
+        return Math.toIntExact(age.exact());
+    }
+
+    // 자주 읽기만 할 때. 마지막으로 더한 뒤의 증가(최대 1024 번의 읽기 동안)는 빠져 있을 수 있다.
+    public int getApproximateAge() {
+        return Math.toIntExact(age.approximate());
     }
 
     public void addAge() {
-        age++;
+        age.increment();
     }
 }
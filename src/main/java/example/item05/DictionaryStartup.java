@@ -0,0 +1,82 @@
+package example.item05;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ *  사전을 준비해서 첫 조회를 마칠 때까지의 시간과 메모리를 잰다. 방식마다 새 JVM 에서 실행해야 서로 영향을 주지 않는다.
+ *
+ *  java example.item05.DictionaryStartup generate 1000000 /tmp/dict   -> /tmp/dict/sample.txt, sample.dawg 생성
+ *  java example.item05.DictionaryStartup text /tmp/dict/sample.txt     -> 단어 목록을 읽어 HashSet<String> 을 만든다.
+ *  java example.item05.DictionaryStartup automaton /tmp/dict/sample.txt -> 단어 목록을 읽어 WordStore 를 만든다.
+ *  java example.item05.DictionaryStartup mapped /tmp/dict/sample.dawg  -> 미리 만든 파일을 매핑한다.
+ *
+ *  RSS(프로세스가 실제로 차지한 물리 메모리)는 리눅스의 /proc/self/status 에서 읽는다.
+ *  매핑한 페이지는 RSS 에 포함되지만 페이지 캐시에 있는 공유 페이지라서, 같은 파일을 매핑한 프로세스가 여럿이어도 물리 메모리는 한 벌만 쓴다.
+ */
+final class DictionaryStartup {
+
+    public static void main(String[] args) throws IOException {
+        String mode = args[0];
+        if (mode.equals("generate")) {
+            Path directory = Files.createDirectories(Path.of(args[2]));
+            Path wordList = Files.write(directory.resolve("sample.txt"), Item5.sampleWords(Integer.parseInt(args[1]), 42));
+            System.out.println(WordStoreFile.compile(wordList, directory));
+            return;
+        }
+
+        Path file = Path.of(args[1]);
+        long start = System.nanoTime();
+        boolean found;
+        switch (mode) {
+            case "text": {
+                Set<String> words = new HashSet<>(Files.readAllLines(file));
+                found = words.contains("kalo");
+                keep(words);
+                break;
+            }
+            case "automaton": {
+                WordStore store = WordStore.build(Files.readAllLines(file));
+                found = store.contains("kalo");
+                keep(store);
+                break;
+            }
+            case "mapped": {
+                Dictionary dictionary = new OxfordDictionary(file);
+                found = dictionary.contains("kalo");
+                keep(dictionary);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("text, automaton, mapped, generate 중 하나여야 합니다: " + mode);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heapMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        System.out.printf("%s: first lookup (%b) after %d ms, heap used %d MB, %s%n", mode, found, elapsedMillis, heapMb, rss());
+    }
+
+    private static Object kept;
+
+    // 측정이 끝날 때까지 사전이 GC 되지 않게 한다.
+    private static void keep(Object dictionary) {
+        kept = dictionary;
+    }
+
+    private static String rss() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) {
+            return "RSS unavailable";
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS") || line.startsWith("RssFile") || line.startsWith("RssAnon"))
+                .map(line -> line.replaceAll("\\s+", " "))
+                .reduce((a, b) -> a + ", " + b)
+                .orElse("RSS unavailable");
+    }
+}
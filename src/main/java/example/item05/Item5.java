@@ -2,8 +2,15 @@ package example.item05;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertSame;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
 *   아이템 5. 자원을 직접 명시하지 말고 의존 객체 주입을 사용하라.
@@ -31,6 +38,137 @@ public class Item5 {
         SpellChecker oxfordSpellChecker2 = new SpellChecker(oxford);
         assertSame(oxfordSpellChecker.getDictionary(), oxfordSpellChecker2.getDictionary()); // Test Success
     }
+
+    @Test
+    public void spellCheckTest() {
+        WordStore words = WordStore.build(List.of("colour", "color", "colours", "cola", "cold", "apple", "apply", "ape"));
+        SpellChecker checker = new SpellChecker(new OxfordDictionary(words));
+
+        assertTrue(checker.isValid("colour"));
+        assertTrue(checker.isValid("ape"));
+        assertFalse(checker.isValid("colo"));    // 다른 단어의 접두사일 뿐이다.
+        assertFalse(checker.isValid("colourr"));
+        assertFalse(checker.isValid(""));
+
+        assertEquals(List.of("colour", "color", "colours"), checker.suggestions("colour"));
+        assertEquals(List.of("apple", "apply", "ape"), checker.suggestions("appl"));
+        assertEquals(List.of("cola", "cold", "color"), new OxfordDictionary(words).suggestions("colr", 1, 10));
+        assertEquals(List.of(), new CambridgeDictionary().suggestions("anything", 2, 10));
+    }
+
+    @Test
+    public void wordStoreTest() {
+        List<String> words = sampleWords(50_000, 42);
+        WordStore store = WordStore.build(words);
+        Set<String> expected = new HashSet<>(words);
+
+        assertEquals(expected.size(), store.size());
+        for (String word : expected) {
+            assertTrue(store.contains(word), word);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            String word = sampleWords(1, random.nextLong()).get(0) + (char) ('a' + random.nextInt(26));
+            assertEquals(expected.contains(word), store.contains(word), word);
+        }
+
+        // 접미사를 공유하므로 상태 수가 단어 수보다 적고, 단어당 수십 바이트인 String 보다 작다.
+        assertTrue(store.stateCount() < store.size(), store.stateCount() + " states");
+        assertTrue(store.sizeInBytes() / store.size() < 16, store.sizeInBytes() + " bytes");
+
+        // 모든 단어와 거리를 직접 비교한 결과와 같다.
+        for (String typo : List.of("kalotem", "monar", "zzz", sampleWords(1, 99).get(0))) {
+            List<String> brute = new ArrayList<>();
+            for (int d = 0; d <= 2; d++) {
+                for (String word : new TreeSet<>(expected)) {
+                    if (editDistance(typo, word) == d) {
+                        brute.add(word);
+                    }
+                }
+            }
+            assertEquals(brute, store.suggestions(typo, 2, Integer.MAX_VALUE), typo);
+        }
+    }
+
+    @Test
+    public void mappedDictionaryTest() throws IOException {
+        List<String> words = sampleWords(20_000, 42);
+        Path directory = Files.createTempDirectory("dictionary");
+        try {
+            Path wordList = directory.resolve("sample.txt");
+            Files.write(wordList, words);
+            Path file = WordStoreFile.compile(wordList, directory);
+
+            WordStore built = WordStore.build(words);
+            WordStore mapped = WordStoreFile.map(file);
+            assertEquals(built.size(), mapped.size());
+            assertEquals(built.sizeInBytes(), mapped.sizeInBytes());
+            for (String word : words) {
+                assertTrue(mapped.contains(word), word);
+            }
+            assertFalse(mapped.contains("notaword"));
+            assertEquals(built.suggestions("kalotem", 2, 20), mapped.suggestions("kalotem", 2, 20));
+
+            // 두 사전이 같은 매핑을 쓴다.
+            SpellChecker oxford = new SpellChecker(new OxfordDictionary(file));
+            SpellChecker cambridge = new SpellChecker(new CambridgeDictionary(directory.resolve(".").resolve("sample.dawg")));
+            assertTrue(oxford.isValid(words.get(0)));
+            assertTrue(cambridge.isValid(words.get(0)));
+            assertSame(WordStoreFile.open(file), WordStoreFile.open(directory.resolve("sample.dawg")));
+
+            // 만들 때가 아니라 처음 조회할 때 파일을 연다.
+            Dictionary missing = new OxfordDictionary(directory.resolve("missing.dawg"));
+            assertThrows(UncheckedIOException.class, () -> missing.contains("word"));
+
+            Path broken = Files.write(directory.resolve("broken.dawg"), new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> WordStoreFile.map(broken));
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /*
+     *  음절을 이어 붙인 가짜 영어 단어. 실제 단어 목록처럼 접두사와 접미사가 많이 겹친다.
+     */
+    static List<String> sampleWords(int count, long seed) {
+        String[] syllables = {"ka", "lo", "te", "mi", "ran", "so", "ve", "na", "ti", "mon", "ar", "el", "us", "po", "qui"};
+        String[] suffixes = {"", "", "s", "ed", "ing", "er", "tion", "ly", "ness"};
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>(count);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            int length = 1 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                builder.append(syllables[random.nextInt(syllables.length)]);
+            }
+            builder.append(suffixes[random.nextInt(suffixes.length)]);
+            words.add(builder.toString());
+        }
+        return words;
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int above = row[j];
+                row[j] = Math.min(Math.min(row[j] + 1, row[j - 1] + 1), diagonal + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+                diagonal = above;
+            }
+        }
+        return row[b.length()];
+    }
 }
 
 /*
@@ -46,20 +184,77 @@ class SpellChecker {
     public Dictionary getDictionary() {
         return dictionary;
     }
+
+    public boolean isValid(String word) {
+        return dictionary.contains(word);
+    }
+
+    // 편집 거리 2 이내의 단어를 가까운 순으로 최대 10 개
+    public List<String> suggestions(String typo) {
+        return dictionary.suggestions(typo, 2, 10);
+    }
 }
 
+/*
+*   단어는 WordStore(최소 오토마톤)에 담는다. 단어 목록을 주지 않으면 빈 사전이다.
+*   사전 파일(.dawg)로 만들면 처음 조회할 때 파일을 매핑한다. 같은 파일을 쓰는 사전들은 매핑 하나를 공유한다. (WordStoreFile 참고)
+*/
 abstract class Dictionary {
+    private final Supplier<WordStore> loader;
+    private volatile WordStore words;
+
+    protected Dictionary(WordStore words) {
+        this.words = Objects.requireNonNull(words);
+        this.loader = null;
+    }
+
+    protected Dictionary(Path file) {
+        Objects.requireNonNull(file);
+        this.loader = () -> WordStoreFile.open(file);
+    }
 
     public String getName() {
         return "";
     }
 
-    // 생략 ...
+    public boolean contains(String word) {
+        return words().contains(word);
+    }
+
+    public List<String> suggestions(String typo, int maxDistance, int limit) {
+        return words().suggestions(typo, maxDistance, limit);
+    }
+
+    // 파일을 읽지 못하면 UncheckedIOException 을 던지고, 다음 조회 때 다시 시도한다.
+    private WordStore words() {
+        WordStore result = words;
+        if (result == null) {
+            synchronized (this) {
+                result = words;
+                if (result == null) {
+                    words = result = loader.get();
+                }
+            }
+        }
+        return result;
+    }
 }
 
 class OxfordDictionary extends Dictionary {
     private final String name = "OxfordDictionary";
 
+    OxfordDictionary() {
+        this(WordStore.EMPTY);
+    }
+
+    OxfordDictionary(WordStore words) {
+        super(words);
+    }
+
+    OxfordDictionary(Path file) {
+        super(file);
+    }
+
     @Override
     public String getName() {
         return name;
@@ -69,6 +264,18 @@ class OxfordDictionary extends Dictionary {
 class CambridgeDictionary extends Dictionary {
     private final String name = "CambridgeDictionary";
 
+    CambridgeDictionary() {
+        this(WordStore.EMPTY);
+    }
+
+    CambridgeDictionary(WordStore words) {
+        super(words);
+    }
+
+    CambridgeDictionary(Path file) {
+        super(file);
+    }
+
     @Override
     public String getName() {
         return name;
@@ -0,0 +1,340 @@
+package example.item05;
+
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/*
+ *  단어 집합을 최소 비순환 오토마톤(DAWG, minimal acyclic finite automaton)으로 담는 불변 저장소.
+ *
+ *  트라이(trie)는 공통 접두사만 공유하지만, 최소 오토마톤은 공통 접미사(-ing, -tion, -ed ...)를 가진 부분 트리도 하나로 합친다.
+ *  그래서 상태 수가 단어 수보다 훨씬 적고, 단어를 String 으로 들고 있는 HashSet<String> 보다 단어당 메모리가 크게 작다.
+ *
+ *  - 만들기 : 정렬된 단어를 차례로 넣으면서 더 이상 바뀌지 않는 상태를 같은 상태끼리 합친다. (Daciuk 의 증분 알고리즘, O(전체 글자 수))
+ *  - 저장 : 상태 s 의 간선은 [edgeStart[s], edgeStart[s + 1]) 구간에 글자 순으로 놓인다.
+ *          target 에는 (도착 상태 << 1) | (그 간선에서 단어가 끝나는지) 를 담는다. 객체 없이 배열 세 개뿐이다.
+ *          배열을 IntBuffer / CharBuffer 로 감싸서 쓰므로, 같은 배치를 파일에서 매핑한 버퍼로도 그대로 읽을 수 있다.
+ *  - contains : 글자마다 간선 하나를 따라간다. O(단어 길이)
+ *  - suggestions : 오토마톤을 깊이 우선으로 돌면서 입력과의 편집 거리(Levenshtein) 표를 한 행씩 채운다.
+ *                  행의 최솟값이 maxDistance 를 넘으면 그 아래는 볼 필요가 없으므로, 단어 전체를 비교하지 않고 가까운 단어만 찾는다.
+ */
+final class WordStore {
+    static final WordStore EMPTY = build(List.of());
+
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+
+    private final IntBuffer edgeStart;
+    private final CharBuffer labels;
+    private final IntBuffer targets;
+    private final int wordCount;
+
+    WordStore(IntBuffer edgeStart, CharBuffer labels, IntBuffer targets, int wordCount) {
+        this.edgeStart = edgeStart;
+        this.labels = labels;
+        this.targets = targets;
+        this.wordCount = wordCount;
+    }
+
+    /*
+     *  빈 문자열은 무시한다. 입력은 정렬되어 있지 않아도 되고 중복이 있어도 된다.
+     */
+    static WordStore build(Collection<String> words) {
+        String[] sorted = words.stream().filter(w -> !w.isEmpty()).sorted().distinct().toArray(String[]::new);
+        Builder builder = new Builder();
+        for (String word : sorted) {
+            builder.add(word);
+        }
+        return builder.finish(sorted.length);
+    }
+
+    int size() {
+        return wordCount;
+    }
+
+    int stateCount() {
+        return edgeStart.limit() - 1;
+    }
+
+    int edgeCount() {
+        return labels.limit();
+    }
+
+    /*
+     *  상태와 간선을 담은 배열의 크기
+     */
+    long sizeInBytes() {
+        return 4L * edgeStart.limit() + 2L * labels.limit() + 4L * targets.limit();
+    }
+
+    boolean contains(CharSequence word) {
+        if (word.length() == 0) {
+            return false;
+        }
+        int state = 0;
+        int target = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int edge = findEdge(state, word.charAt(i));
+            if (edge < 0) {
+                return false;
+            }
+            target = targets.get(edge);
+            state = target >>> 1;
+        }
+        return (target & 1) != 0;
+    }
+
+    /*
+     *  편집 거리가 maxDistance 이하인 단어를 거리 순으로, 거리가 같으면 사전 순으로 최대 limit 개 반환한다.
+     *  word 자체가 사전에 있으면 거리 0 으로 맨 앞에 온다.
+     */
+    List<String> suggestions(CharSequence word, int maxDistance, int limit) {
+        if (maxDistance < 0 || limit < 0) {
+            throw new IllegalArgumentException("maxDistance 와 limit 은 0 이상이어야 합니다.");
+        }
+        Search search = new Search(word, maxDistance);
+        int[] firstRow = new int[word.length() + 1];
+        for (int j = 0; j < firstRow.length; j++) {
+            firstRow[j] = j;
+        }
+        search.visit(0, firstRow, 0);
+
+        List<List<String>> byDistance = search.found;
+        List<String> result = new ArrayList<>();
+        for (int d = 0; d < byDistance.size() && result.size() < limit; d++) {
+            List<String> found = byDistance.get(d);
+            result.addAll(found.subList(0, Math.min(found.size(), limit - result.size())));
+        }
+        return result;
+    }
+
+    IntBuffer edgeStart() {
+        return edgeStart.duplicate();
+    }
+
+    CharBuffer labels() {
+        return labels.duplicate();
+    }
+
+    IntBuffer targets() {
+        return targets.duplicate();
+    }
+
+    private int findEdge(int state, char c) {
+        int from = edgeStart.get(state);
+        int to = edgeStart.get(state + 1);
+        if (to - from <= LINEAR_SEARCH_LIMIT) {
+            for (int e = from; e < to; e++) {
+                char label = labels.get(e);
+                if (label == c) {
+                    return e;
+                }
+                if (label > c) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+        int low = from, high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels.get(mid);
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     *  깊이 우선 탐색의 상태. 접두사와 편집 거리 표의 행을 깊이별로 재사용한다.
+     */
+    private final class Search {
+        final CharSequence word;
+        final int maxDistance;
+        final List<List<String>> found = new ArrayList<>();
+        char[] prefix = new char[16];
+        final List<int[]> rows = new ArrayList<>();
+
+        Search(CharSequence word, int maxDistance) {
+            this.word = word;
+            this.maxDistance = maxDistance;
+            for (int d = 0; d <= maxDistance; d++) {
+                found.add(new ArrayList<>());
+            }
+        }
+
+        void visit(int state, int[] row, int depth) {
+            int m = word.length();
+            for (int e = edgeStart.get(state), end = edgeStart.get(state + 1); e < end; e++) {
+                char c = labels.get(e);
+                int[] next = row(depth);
+                next[0] = row[0] + 1;
+                int min = next[0];
+                for (int j = 1; j <= m; j++) {
+                    int cost = word.charAt(j - 1) == c ? 0 : 1;
+                    next[j] = Math.min(Math.min(row[j] + 1, next[j - 1] + 1), row[j - 1] + cost);
+                    min = Math.min(min, next[j]);
+                }
+                if (min > maxDistance) {
+                    continue;
+                }
+                if (depth == prefix.length) {
+                    prefix = Arrays.copyOf(prefix, depth * 2);
+                }
+                prefix[depth] = c;
+                int target = targets.get(e);
+                if ((target & 1) != 0 && next[m] <= maxDistance) {
+                    found.get(next[m]).add(new String(prefix, 0, depth + 1));
+                }
+                visit(target >>> 1, next, depth + 1);
+            }
+        }
+
+        private int[] row(int depth) {
+            while (rows.size() <= depth) {
+                rows.add(new int[word.length() + 1]);
+            }
+            return rows.get(depth);
+        }
+    }
+
+    /*
+     *  정렬된 순서로 단어를 받아 최소 오토마톤을 만든다.
+     *  새 단어를 넣기 전에, 이전 단어 중 새 단어와 공유하지 않는 꼬리 부분은 더 이상 바뀌지 않으므로 등록부(register)의 같은 상태로 바꾼다.
+     */
+    private static final class Builder {
+        private final State root = new State();
+        private final Map<State, State> register = new HashMap<>();
+        private String previous = "";
+
+        void add(String word) {
+            int common = 0;
+            State state = root;
+            while (common < word.length() && common < previous.length()
+                    && word.charAt(common) == previous.charAt(common)) {
+                state = state.lastChild();
+                common++;
+            }
+            if (state.hasChildren()) {
+                replaceOrRegister(state);
+            }
+            for (int i = common; i < word.length(); i++) {
+                State child = new State();
+                state.addChild(word.charAt(i), child);
+                state = child;
+            }
+            state.isFinal = true;
+            previous = word;
+        }
+
+        WordStore finish(int wordCount) {
+            if (root.hasChildren()) {
+                replaceOrRegister(root);
+            }
+            // 상태에 번호를 매기고(루트가 0) 간선을 번호 순서대로 배열에 펼친다.
+            Map<State, Integer> ids = new IdentityHashMap<>();
+            List<State> order = new ArrayList<>();
+            ids.put(root, 0);
+            order.add(root);
+            int edges = 0;
+            for (int i = 0; i < order.size(); i++) {
+                State state = order.get(i);
+                edges += state.size;
+                for (int e = 0; e < state.size; e++) {
+                    State child = state.children[e];
+                    if (!ids.containsKey(child)) {
+                        ids.put(child, order.size());
+                        order.add(child);
+                    }
+                }
+            }
+            int[] edgeStart = new int[order.size() + 1];
+            char[] labels = new char[edges];
+            int[] targets = new int[edges];
+            int edge = 0;
+            for (int i = 0; i < order.size(); i++) {
+                State state = order.get(i);
+                edgeStart[i] = edge;
+                for (int e = 0; e < state.size; e++) {
+                    State child = state.children[e];
+                    labels[edge] = state.labels[e];
+                    targets[edge] = ids.get(child) << 1 | (child.isFinal ? 1 : 0);
+                    edge++;
+                }
+            }
+            edgeStart[order.size()] = edge;
+            return new WordStore(IntBuffer.wrap(edgeStart), CharBuffer.wrap(labels), IntBuffer.wrap(targets), wordCount);
+        }
+
+        private void replaceOrRegister(State state) {
+            State child = state.lastChild();
+            if (child.hasChildren()) {
+                replaceOrRegister(child);
+            }
+            State same = register.putIfAbsent(child, child);
+            if (same != null) {
+                state.children[state.size - 1] = same;
+            }
+        }
+    }
+
+    /*
+     *  만드는 동안만 쓰는 상태. 자식은 글자 순으로 추가된다.
+     *  등록부에 들어간 상태는 더 이상 바뀌지 않으므로 equals / hashCode 는 (끝 여부, 글자들, 자식의 동일성) 으로 정한다.
+     */
+    private static final class State {
+        boolean isFinal;
+        char[] labels = new char[2];
+        State[] children = new State[2];
+        int size;
+
+        boolean hasChildren() {
+            return size > 0;
+        }
+
+        State lastChild() {
+            return children[size - 1];
+        }
+
+        void addChild(char label, State child) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                children = Arrays.copyOf(children, size * 2);
+            }
+            labels[size] = label;
+            children[size] = child;
+            size++;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) {
+                return false;
+            }
+            State other = (State) o;
+            if (isFinal != other.isFinal || size != other.size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (labels[i] != other.labels[i] || children[i] != other.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = isFinal ? 1 : 0;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + labels[i];
+                hash = 31 * hash + System.identityHashCode(children[i]);
+            }
+            return hash;
+        }
+    }
+}
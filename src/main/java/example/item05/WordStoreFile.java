@@ -0,0 +1,143 @@
+package example.item05;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ *  WordStore 를 파일로 저장하고, 파일을 메모리 매핑해서 그대로 WordStore 로 쓴다.
+ *
+ *  단어 목록을 읽어 오토마톤을 만드는 일은 서비스가 뜰 때마다 몇 초씩 걸리고 힙도 많이 쓴다.
+ *  빌드할 때 한 번 만들어 두고(gradle compileDictionaries), 실행할 때는 파일을 매핑하기만 한다.
+ *  - 매핑한 페이지는 힙 밖(off-heap)에 있고 GC 대상이 아니다. 처음 읽을 때 OS 가 필요한 페이지만 디스크에서 올린다.
+ *  - 읽기 전용으로 매핑하므로 같은 파일을 매핑한 여러 프로세스가 OS 페이지 캐시의 같은 물리 페이지를 함께 쓴다.
+ *  - 같은 프로세스 안에서는 경로별로 한 번만 매핑한다. (open 참고)
+ *
+ *  파일 형식 (리틀 엔디언)
+ *  | magic 'DAWG' | version | 단어 수 | 상태 수 + 1 | 간선 수 | edgeStart int[] | targets int[] | labels char[] |
+ */
+final class WordStoreFile {
+    static final String EXTENSION = ".dawg";
+
+    private static final int MAGIC = 0x44415747;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    private static final Map<Path, WordStore> OPENED = new ConcurrentHashMap<>();
+
+    private WordStoreFile() {}
+
+    /*
+     *  임시 파일에 쓴 뒤 옮기므로, 다른 프로세스가 쓰다 만 파일을 매핑하는 일은 없다.
+     */
+    static void write(WordStore store, Path file) throws IOException {
+        IntBuffer edgeStart = store.edgeStart();
+        IntBuffer targets = store.targets();
+        CharBuffer labels = store.labels();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + Integer.BYTES * (edgeStart.remaining() + targets.remaining())
+                + Character.BYTES * labels.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(store.size()).putInt(edgeStart.remaining()).putInt(labels.remaining());
+        while (edgeStart.hasRemaining()) {
+            buffer.putInt(edgeStart.get());
+        }
+        while (targets.hasRemaining()) {
+            buffer.putInt(targets.get());
+        }
+        while (labels.hasRemaining()) {
+            buffer.putChar(labels.get());
+        }
+        buffer.flip();
+
+        Path absolute = file.toAbsolutePath();
+        // createTempFile 은 소유자만 읽을 수 있는 권한으로 만들므로 쓰지 않는다. 다른 사용자의 프로세스도 매핑할 수 있어야 한다.
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     *  같은 경로는 한 번만 매핑해서 모든 Dictionary 가 공유한다.
+     *  매핑한 뒤에 파일이 바뀌어도 이미 연 WordStore 에는 반영되지 않는다. (파일은 write 처럼 새로 써서 교체해야 한다.)
+     */
+    static WordStore open(Path file) {
+        return OPENED.computeIfAbsent(file.toAbsolutePath().normalize(), path -> {
+            try {
+                return map(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    static WordStore map(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());  // 채널을 닫아도 매핑은 유지된다.
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("사전 파일이 아닙니다: " + file);
+        }
+        int words = buffer.getInt(8);
+        int offsets = buffer.getInt(12);
+        int edges = buffer.getInt(16);
+        long expected = HEADER_BYTES + (long) Integer.BYTES * (offsets + edges) + (long) Character.BYTES * edges;
+        if (words < 0 || offsets < 1 || edges < 0 || expected != buffer.limit()) {
+            throw new IOException("사전 파일이 손상되었습니다: " + file);
+        }
+        int position = HEADER_BYTES;
+        IntBuffer edgeStart = slice(buffer, position, Integer.BYTES * offsets).asIntBuffer();
+        position += Integer.BYTES * offsets;
+        IntBuffer targets = slice(buffer, position, Integer.BYTES * edges).asIntBuffer();
+        position += Integer.BYTES * edges;
+        CharBuffer labels = slice(buffer, position, Character.BYTES * edges).asCharBuffer();
+        return new WordStore(edgeStart, labels, targets, words);
+    }
+
+    static Path compile(Path wordList, Path outputDirectory) throws IOException {
+        String name = wordList.getFileName().toString().replaceFirst("\\.txt$", "");
+        Path output = outputDirectory.resolve(name + EXTENSION);
+        List<String> words = Files.readAllLines(wordList);
+        words.replaceAll(String::strip);
+        write(WordStore.build(words), output);
+        return output;
+    }
+
+    /*
+     *  빌드 단계(gradle compileDictionaries)에서 실행한다.
+     *  args[0] 디렉터리의 *.txt (한 줄에 한 단어) 를 args[1] 디렉터리의 *.dawg 로 만든다.
+     */
+    public static void main(String[] args) throws IOException {
+        Path input = Path.of(args[0]);
+        Path output = Files.createDirectories(Path.of(args[1]));
+        try (DirectoryStream<Path> wordLists = Files.newDirectoryStream(input, "*.txt")) {
+            for (Path wordList : wordLists) {
+                Path compiled = compile(wordList, output);
+                System.out.println(wordList.getFileName() + " -> " + compiled + " (" + Files.size(compiled) + " bytes)");
+            }
+        }
+    }
+
+    // slice 는 바이트 순서를 빅 엔디언으로 되돌리므로 다시 지정한다.
+    private static ByteBuffer slice(ByteBuffer buffer, int index, int length) {
+        return buffer.slice(index, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,37 @@
+package example.item06;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/*
+ *  int 원소를 박싱하지 않고 보여주는 읽기 전용 뷰. (IntIntMap.keySet() 등)
+ */
+public interface IntCollection {
+
+    int size();
+
+    boolean contains(int value);
+
+    PrimitiveIterator.OfInt iterator();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    default IntStream stream() {
+        return StreamSupport.intStream(
+                Spliterators.spliterator(iterator(), size(), Spliterator.SIZED | Spliterator.NONNULL), false);
+    }
+
+    default int[] toArray() {
+        int[] result = new int[size()];
+        PrimitiveIterator.OfInt it = iterator();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = it.nextInt();
+        }
+        return result;
+    }
+}
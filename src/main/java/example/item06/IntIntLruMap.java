@@ -0,0 +1,289 @@
+package example.item06;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ *  엔트리 수가 maxSize 를 넘으면 가장 오래된 엔트리를 버리는 int -> int 맵. Item44.SizedMap 의 기본 타입 버전이다.
+ *
+ *  SizedMap(LinkedHashMap + removeEldestEntry)은 put 마다 Integer 두 개와 Entry(40 바이트)를 만들고, 넘친 엔트리를 버리면서 그만큼 GC 에 넘긴다.
+ *  여기서는 엔트리를 maxSize + 1 칸짜리 배열(keys, values, prev, next)에 담는다. 버리거나 지운 엔트리의 번호는 다음 put 이 다시 쓰므로
+ *  처음 만든 뒤로는 put 이 아무것도 할당하지 않는다.
+ *  - 키로 엔트리 번호를 찾는 색인은 IntIntMap 과 같은 선형 탐사 표다. 칸에는 엔트리 번호 + 1 을 담고 0 은 빈 칸이다. (그래서 키 0 도 그냥 담는다.)
+ *  - 엔트리마다 색인의 몇 번째 칸에 있는지 기억해 둔다. 넘쳐서 버릴 때 버릴 키를 다시 찾지 않아도 된다.
+ *    새 엔트리를 먼저 넣고 나서 가장 오래된 것을 버리므로 잠깐 maxSize + 1 개가 된다. 그래서 엔트리 배열이 한 칸 더 크다.
+ *  - 색인은 maxSize 의 4 배 이상으로 잡아서 1/5 도 채우지 않는다. 가득 찬 뒤로는 put 마다 넣기와 버리기(backward shift)가 함께 일어나는데,
+ *    IntIntMap 처럼 3/4 까지 채우면 "옆 칸이 비었나" 분기를 CPU 가 거의 맞히지 못해서 put 하나가 3 배 이상 느려졌다. (SizedMapBenchmark)
+ *    엔트리가 수백 개인 캐시라면 몇 KB 의 고정 비용이다.
+ *  - accessOrder 가 true 면 get / put 한 엔트리가 가장 최근 것이 된다. (LRU, LinkedHashMap(.., .., true) 와 같다.)
+ *    false 면 넣은 순서대로 버린다. (SizedMap 과 같다.) containsKey 는 순서를 바꾸지 않는다.
+ *  - keySet() 은 처음 만든 뷰를 재사용하고, 오래된 것부터 순회한다.
+ *  - 스레드 세이프하지 않다.
+ */
+public class IntIntLruMap {
+    private static final int NONE = -1;
+
+    private final int maxSize;
+    private final boolean accessOrder;
+    private final int missingValue;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int[] prev;
+    private final int[] next;   // 빈 엔트리끼리는 free 목록으로 잇는다.
+    private final int[] slots;  // 엔트리가 있는 색인 칸
+    private int head = NONE;  // 가장 오래된 엔트리
+    private int tail = NONE;  // 가장 최근 엔트리
+    private int free = NONE;
+    private int used;  // 한 번이라도 쓴 엔트리 번호 수
+    private int size;
+
+    private final int[] index;
+    private final int mask;
+
+    private KeySet keySet;
+
+    public IntIntLruMap(int maxSize) {
+        this(maxSize, true, 0);
+    }
+
+    public IntIntLruMap(int maxSize, boolean accessOrder) {
+        this(maxSize, accessOrder, 0);
+    }
+
+    public IntIntLruMap(int maxSize, boolean accessOrder, int missingValue) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize 는 0 보다 커야 합니다: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.accessOrder = accessOrder;
+        this.missingValue = missingValue;
+        this.keys = new int[maxSize + 1];
+        this.values = new int[maxSize + 1];
+        this.prev = new int[maxSize + 1];
+        this.next = new int[maxSize + 1];
+        this.slots = new int[maxSize + 1];
+        long sparse = 4L * maxSize;
+        this.index = new int[IntIntMap.capacityFor(sparse <= 1 << 29 ? (int) sparse : maxSize + 1)];
+        this.mask = index.length - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    public int get(int key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        int id = index[slot] - 1;
+        if (accessOrder) {
+            moveToTail(id);
+        }
+        return values[id];
+    }
+
+    /*
+     *  이전 값을 반환한다. 없었으면 missingValue. 넘치면 가장 오래된 엔트리를 버린다.
+     */
+    public int put(int key, int value) {
+        int slot = findSlot(key);
+        if (index[slot] != 0) {
+            int id = index[slot] - 1;
+            int previous = values[id];
+            values[id] = value;
+            if (accessOrder) {
+                moveToTail(id);
+            }
+            return previous;
+        }
+        int id;
+        if (free != NONE) {
+            id = free;
+            free = next[id];
+        } else {
+            id = used++;
+        }
+        keys[id] = key;
+        values[id] = value;
+        slots[id] = slot;
+        index[slot] = id + 1;
+        linkLast(id);
+        if (++size > maxSize) {
+            removeEntry(head);
+        }
+        return missingValue;
+    }
+
+    /*
+     *  제거한 값을 반환한다. 없었으면 missingValue
+     */
+    public int remove(int key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        int id = index[slot] - 1;
+        int removed = values[id];
+        removeEntry(id);
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(index, 0);
+        head = tail = free = NONE;
+        used = size = 0;
+    }
+
+    /*
+     *  오래된 것부터 순서대로 돈다.
+     */
+    public void forEach(IntIntMap.IntIntConsumer action) {
+        for (int id = head; id != NONE; id = next[id]) {
+            action.accept(keys[id], values[id]);
+        }
+    }
+
+    public IntCollection keySet() {
+        KeySet view = keySet;
+        return view != null ? view : (keySet = new KeySet());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return sb.append('}').toString();
+    }
+
+    private int slotOf(int key) {
+        int[] index = this.index;
+        for (int slot = IntIntMap.hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int id = index[slot];
+            if (id == 0) {
+                return -1;
+            }
+            if (keys[id - 1] == key) {
+                return slot;
+            }
+        }
+    }
+
+    // key 가 있는 칸, 없으면 넣을 빈 칸
+    private int findSlot(int key) {
+        int[] index = this.index;
+        int slot = IntIntMap.hash(key) & mask;
+        while (index[slot] != 0 && keys[index[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // 엔트리를 목록과 색인에서 빼고 번호를 free 목록에 돌려준다.
+    private void removeEntry(int id) {
+        unlink(id);
+        shiftBack(slots[id]);
+        next[id] = free;
+        free = id;
+        size--;
+    }
+
+    private void shiftBack(int slot) {
+        int[] index = this.index;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int id = index[i] - 1;
+            int home = IntIntMap.hash(keys[id]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                index[gap] = id + 1;
+                slots[id] = gap;
+                gap = i;
+            }
+        }
+        index[gap] = 0;
+    }
+
+    private void linkLast(int id) {
+        prev[id] = tail;
+        next[id] = NONE;
+        if (tail != NONE) {
+            next[tail] = id;
+        } else {
+            head = id;
+        }
+        tail = id;
+    }
+
+    private void unlink(int id) {
+        int p = prev[id], n = next[id];
+        if (p != NONE) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private void moveToTail(int id) {
+        if (id != tail) {
+            unlink(id);
+            linkLast(id);
+        }
+    }
+
+    private final class KeySet implements IntCollection {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return containsKey(value);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private int id = head;
+
+                @Override
+                public boolean hasNext() {
+                    return id != NONE;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (id == NONE) {
+                        throw new NoSuchElementException();
+                    }
+                    int key = keys[id];
+                    id = next[id];
+                    return key;
+                }
+            };
+        }
+    }
+}
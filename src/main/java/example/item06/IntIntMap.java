@@ -0,0 +1,395 @@
+package example.item06;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ *  int 키와 int 값을 박싱 없이 담는 해시 맵. 개방 주소법(open addressing)과 선형 탐사(linear probing)를 쓴다.
+ *
+ *  HashMap<Integer, Integer> 의 엔트리 하나는 Node(32 바이트) + Integer 두 개(16 바이트씩) + 버킷 배열의 참조로 60 바이트를 넘는다.
+ *  원래 데이터는 8 바이트다. 조회할 때마다 Node 와 Integer 를 따라가느라 캐시 미스도 여러 번 난다.
+ *  여기서는 키와 값을 int[] 두 개에 나란히 담는다. 해시가 가리킨 칸부터 옆 칸으로 차례로 찾으므로 대부분 캐시 라인 하나 안에서 끝난다.
+ *  - 빈 칸은 키 0 으로 표시한다. 진짜 키 0 은 배열 밖의 필드(hasZeroKey, zeroValue)에 따로 담는다.
+ *  - 삭제할 때는 무덤(tombstone)을 남기지 않고, 뒤에 있던 엔트리 중 제자리로 갈 수 있는 것을 당겨 온다. (backward shift)
+ *  - 엔트리가 용량의 3/4 을 넘으면 두 배로 늘린다.
+ *  - 없는 키를 조회하면 missingValue(기본 0)를 반환한다. 값이 missingValue 와 같을 수 있다면 containsKey 로 구분한다.
+ *  - keySet() / values() 는 처음 만든 뷰를 재사용한다. (Map.keySet 과 같은 보장, Item6.map_keySet_Test 참고)
+ *    뷰는 맵을 그대로 보여주며, 순회하는 동안 맵을 수정하면 결과는 정해져 있지 않다.
+ *  - 스레드 세이프하지 않다.
+ */
+public class IntIntMap {
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;  // 배열에 든 엔트리 수 (키 0 제외)
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    private final int missingValue;
+
+    private KeySet keySet;
+    private Values valuesView;
+
+    public IntIntMap() {
+        this(16, 0);
+    }
+
+    public IntIntMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    public IntIntMap(int expectedSize, int missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize 는 0 이상이어야 합니다: " + expectedSize);
+        }
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int missingValue() {
+        return missingValue;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+    }
+
+    public int get(int key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int[] keys = this.keys;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == 0) {
+                return defaultValue;
+            }
+        }
+    }
+
+    /*
+     *  이전 값을 반환한다. 없었으면 missingValue
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : missingValue;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        insertAt(slot, key, value);
+        return missingValue;
+    }
+
+    /*
+     *  key 의 값에 delta 를 더한 결과를 반환한다. 없던 키는 0 에서 시작한다. (빈도 세기용)
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    /*
+     *  제거한 값을 반환한다. 없었으면 missingValue
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            hasZeroKey = false;
+            return zeroValue;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        int previous = values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(IntIntConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        int[] keys = this.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public IntCollection keySet() {
+        KeySet view = keySet;
+        return view != null ? view : (keySet = new KeySet());
+    }
+
+    public IntCollection values() {
+        Values view = valuesView;
+        return view != null ? view : (valuesView = new Values());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof IntIntMap)) {
+            return false;
+        }
+        IntIntMap other = (IntIntMap) o;
+        if (other.size() != size() || other.hasZeroKey != hasZeroKey || hasZeroKey && other.zeroValue != zeroValue) {
+            return false;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            int key = keys[slot];
+            if (key != 0 && (!other.containsKey(key) || other.get(key) != values[slot])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Map.hashCode 와 같은 규칙 (키 해시 ^ 값 해시 의 합)
+    @Override
+    public int hashCode() {
+        int h = hasZeroKey ? zeroValue : 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                h += keys[slot] ^ values[slot];
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return sb.append('}').toString();
+    }
+
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / 0.75) + 1;
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("너무 큽니다: " + expectedSize);
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    // 연속된 키(0, 1, 2, ...)도 표 전체에 고르게 흩어지도록 섞는다.
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private int slotOf(int key) {
+        int[] keys = this.keys;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    // key 가 있는 칸, 없으면 넣을 빈 칸
+    private int findSlot(int key) {
+        int[] keys = this.keys;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key && keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, int key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys, oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /*
+     *  slot 을 비우고, 뒤따르는 엔트리 중 slot 을 지나야 닿을 수 있던 것을 당겨 와서 탐사 사슬이 끊기지 않게 한다.
+     */
+    private void shiftBack(int slot) {
+        int[] keys = this.keys;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            // home 이 (gap, i] 구간 밖에 있으면 gap 으로 옮겨도 찾을 수 있다.
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    /*
+     *  배열의 칸을 차례로 돌고, 마지막에 키 0 을 돌려준다.
+     */
+    private abstract class SlotIterator implements PrimitiveIterator.OfInt {
+        private int slot = advance(0);
+        private boolean zeroPending = hasZeroKey;
+
+        private int advance(int from) {
+            while (from < keys.length && keys[from] == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < keys.length || zeroPending;
+        }
+
+        @Override
+        public int nextInt() {
+            if (slot < keys.length) {
+                int current = slot;
+                slot = advance(slot + 1);
+                return element(current);
+            }
+            if (zeroPending) {
+                zeroPending = false;
+                return element(-1);
+            }
+            throw new NoSuchElementException();
+        }
+
+        // slot 이 -1 이면 키 0 의 엔트리
+        abstract int element(int slot);
+    }
+
+    private final class KeySet implements IntCollection {
+        @Override
+        public int size() {
+            return IntIntMap.this.size();
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return containsKey(value);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new SlotIterator() {
+                @Override
+                int element(int slot) {
+                    return slot < 0 ? 0 : keys[slot];
+                }
+            };
+        }
+    }
+
+    private final class Values implements IntCollection {
+        @Override
+        public int size() {
+            return IntIntMap.this.size();
+        }
+
+        @Override
+        public boolean contains(int value) {
+            if (hasZeroKey && zeroValue == value) {
+                return true;
+            }
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0 && values[slot] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new SlotIterator() {
+                @Override
+                int element(int slot) {
+                    return slot < 0 ? zeroValue : values[slot];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package example.item06;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+
+/*
+ *  int 키에 객체 값을 담는 해시 맵. 키는 IntIntMap 과 같은 방식으로 int[] 에 담고, 값은 나란한 Object[] 에 담는다.
+ *
+ *  HashMap<Integer, V> 과 비교해 엔트리마다 Node 와 Integer 키 객체가 없어진다.
+ *  - null 값은 받지 않는다. 그래서 get 이 null 을 반환하면 키가 없다는 뜻이다.
+ *  - values() 는 java.util.Collection 이다. keySet() 과 마찬가지로 처음 만든 뷰를 재사용한다.
+ *  - 삭제된 칸의 값 참조는 지워서 맵이 값을 붙잡고 있지 않게 한다.
+ */
+public class IntObjectMap<V> {
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;  // 배열에 든 엔트리 수 (키 0 제외)
+    private int resizeAt;
+
+    private V zeroValue;  // null 이면 키 0 이 없다.
+
+    private KeySet keySet;
+    private Values valuesView;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize 는 0 이상이어야 합니다: " + expectedSize);
+        }
+        allocate(IntIntMap.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size + (zeroValue != null ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = slotOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /*
+     *  이전 값을 반환한다. 없었으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        if (key == 0) {
+            V previous = zeroValue;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        if (key == 0) {
+            return zeroValue != null ? zeroValue : (zeroValue = Objects.requireNonNull(mappingFunction.apply(0)));
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            return (V) values[slot];
+        }
+        V value = Objects.requireNonNull(mappingFunction.apply(key));
+        put(key, value);  // mappingFunction 이 맵을 바꿨을 수 있으므로 칸을 다시 찾는다.
+        return value;
+    }
+
+    /*
+     *  제거한 값을 반환한다. 없었으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == 0) {
+            V previous = zeroValue;
+            zeroValue = null;
+            return previous;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+        zeroValue = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> action) {
+        if (zeroValue != null) {
+            action.accept(0, zeroValue);
+        }
+        int[] keys = this.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                action.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    public IntCollection keySet() {
+        KeySet view = keySet;
+        return view != null ? view : (keySet = new KeySet());
+    }
+
+    public Collection<V> values() {
+        Values view = valuesView;
+        return view != null ? view : (valuesView = new Values());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return sb.append('}').toString();
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private int slotOf(int key) {
+        int[] keys = this.keys;
+        for (int slot = IntIntMap.hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    // key 가 있는 칸, 없으면 넣을 빈 칸
+    private int findSlot(int key) {
+        int[] keys = this.keys;
+        int slot = IntIntMap.hash(key) & mask;
+        while (keys[slot] != key && keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int slot = IntIntMap.hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void shiftBack(int slot) {
+        int[] keys = this.keys;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = IntIntMap.hash(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+    }
+
+    /*
+     *  배열의 칸을 차례로 돌고, 마지막에 키 0 을 돌려준다. 돌려준 칸 번호는 -1 이 키 0 이다.
+     */
+    private final class SlotCursor {
+        private int slot = advance(0);
+        private boolean zeroPending = zeroValue != null;
+
+        private int advance(int from) {
+            while (from < keys.length && keys[from] == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        boolean hasNext() {
+            return slot < keys.length || zeroPending;
+        }
+
+        int next() {
+            if (slot < keys.length) {
+                int current = slot;
+                slot = advance(slot + 1);
+                return current;
+            }
+            if (zeroPending) {
+                zeroPending = false;
+                return -1;
+            }
+            throw new NoSuchElementException();
+        }
+    }
+
+    private final class KeySet implements IntCollection {
+        @Override
+        public int size() {
+            return IntObjectMap.this.size();
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return containsKey(value);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            SlotCursor cursor = new SlotCursor();
+            return new PrimitiveIterator.OfInt() {
+                @Override
+                public boolean hasNext() {
+                    return cursor.hasNext();
+                }
+
+                @Override
+                public int nextInt() {
+                    int slot = cursor.next();
+                    return slot < 0 ? 0 : keys[slot];
+                }
+            };
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public int size() {
+            return IntObjectMap.this.size();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            SlotCursor cursor = new SlotCursor();
+            return new Iterator<V>() {
+                @Override
+                public boolean hasNext() {
+                    return cursor.hasNext();
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V next() {
+                    int slot = cursor.next();
+                    return slot < 0 ? zeroValue : (V) values[slot];
+                }
+            };
+        }
+    }
+}
@@ -3,8 +3,11 @@ package example.item06;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,6 +17,10 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 public class Item6 {
 
+    /*
+     *   워밍업, 포크 없이 currentTimeMillis()로 잰 값이라 아래 주석의 시간은 대략적인 참고용이다.
+     *   믿을 수 있는 비교는 src/jmh/java/example/item06/Item6Benchmark 를 실행해서 확인하자. (gradle jmh -Pjmh.includes=Item6Benchmark)
+     */
     @Test
     public void type_test() {
         long start = System.currentTimeMillis();
@@ -41,6 +48,133 @@ public class Item6 {
 
         assertSame(keySet1, keySet2); // Test Success -> Map 인터페이스의 keySet 메서드는 새로운 인스턴스가 아닌 같은 인스턴스를 반환한다.
     }
+
+    /*
+     *   HashMap<Integer, Integer> 은 엔트리마다 Node 와 Integer 두 개를 만든다. IntIntMap 은 int[] 두 개에 키와 값을 그대로 담는다.
+     *   keySet() 도 Map 과 마찬가지로 같은 뷰 인스턴스를 재사용한다.
+     */
+    @Test
+    public void primitive_map_keySet_Test() {
+        IntIntMap map = new IntIntMap();
+        assertSame(map.keySet(), map.keySet());
+        assertSame(map.values(), map.values());
+
+        LongLongMap longMap = new LongLongMap();
+        assertSame(longMap.keySet(), longMap.keySet());
+
+        IntObjectMap<String> objectMap = new IntObjectMap<>();
+        assertSame(objectMap.keySet(), objectMap.keySet());
+        assertSame(objectMap.values(), objectMap.values());
+
+        IntIntLruMap lruMap = new IntIntLruMap(100);
+        assertSame(lruMap.keySet(), lruMap.keySet());
+
+        // 뷰는 맵의 현재 상태를 보여준다.
+        IntCollection keySet = map.keySet();
+        map.put(0, 10);
+        map.put(7, 70);
+        assertEquals(2, keySet.size());
+        assertTrue(keySet.contains(0));
+        assertEquals(Set.of(0, 7), keySet.stream().boxed().collect(Collectors.toSet()));
+        assertEquals(80, map.values().stream().sum());
+    }
+
+    /*
+     *   같은 연산을 HashMap 과 IntIntMap / LongLongMap / IntObjectMap 에 똑같이 하고 결과를 비교한다.
+     *   키 범위를 좁혀서 덮어쓰기, 삭제(backward shift), 키 0 이 자주 일어나게 한다.
+     */
+    @Test
+    public void primitive_map_matches_HashMap_test() {
+        Random random = new Random(6);
+        Map<Integer, Integer> expected = new HashMap<>();
+        IntIntMap intMap = new IntIntMap(0, -1);
+        LongLongMap longMap = new LongLongMap(0, -1);
+        IntObjectMap<Integer> objectMap = new IntObjectMap<>(0);
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            int value = random.nextInt();
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    int previous = expected.getOrDefault(key, -1);
+                    assertEquals(previous, intMap.put(key, value));
+                    assertEquals(previous, longMap.put(key * 0x1_0000_0001L, value));
+                    assertEquals(expected.put(key, value), objectMap.put(key, value));
+                    break;
+                case 2:
+                    int removed = expected.getOrDefault(key, -1);
+                    assertEquals(removed, intMap.remove(key));
+                    assertEquals(removed, longMap.remove(key * 0x1_0000_0001L));
+                    assertEquals(expected.remove(key), objectMap.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), intMap.containsKey(key));
+                    assertEquals(expected.getOrDefault(key, -1), intMap.get(key));
+                    assertEquals((long) expected.getOrDefault(key, -1), longMap.get(key * 0x1_0000_0001L));
+                    assertEquals(expected.get(key), objectMap.get(key));
+            }
+            assertEquals(expected.size(), intMap.size());
+        }
+
+        assertEquals(expected.size(), longMap.size());
+        assertEquals(expected.size(), objectMap.size());
+        Map<Integer, Integer> actual = new HashMap<>();
+        intMap.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.keySet(), intMap.keySet().stream().boxed().collect(Collectors.toSet()));
+        assertEquals(expected.values().stream().mapToLong(Integer::longValue).sum(), longMap.values().stream().sum());
+        assertEquals(expected.keySet(), objectMap.keySet().stream().boxed().collect(Collectors.toSet()));
+        assertEquals(expected.hashCode(), intMap.hashCode());
+
+        IntIntMap counts = new IntIntMap();
+        for (int key : new int[]{3, 0, 3, 3, 0}) {
+            counts.addTo(key, 1);
+        }
+        assertEquals("{0=2, 3=3}", counts.toString());
+    }
+
+    /*
+     *   IntIntLruMap 이 LinkedHashMap + removeEldestEntry 와 같은 엔트리를 같은 순서로 남기는지 본다. (접근 순서 / 삽입 순서 모두)
+     */
+    @Test
+    public void lru_map_matches_LinkedHashMap_test() {
+        for (boolean accessOrder : new boolean[]{true, false}) {
+            int maxSize = 100;
+            Map<Integer, Integer> expected = new LinkedHashMap<>(16, 0.75f, accessOrder) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                    return size() > maxSize;
+                }
+            };
+            IntIntLruMap lruMap = new IntIntLruMap(maxSize, accessOrder, -1);
+            Random random = new Random(44);
+
+            for (int i = 0; i < 100_000; i++) {
+                int key = random.nextInt(300);
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1:
+                        assertEquals(expected.getOrDefault(key, -1), lruMap.put(key, i));
+                        expected.put(key, i);
+                        break;
+                    case 2:
+                        Integer removed = expected.remove(key);
+                        assertEquals(removed == null ? -1 : removed, lruMap.remove(key));
+                        break;
+                    default:
+                        Integer value = expected.get(key);
+                        assertEquals(value == null ? -1 : value, lruMap.get(key));
+                }
+                assertEquals(expected.size(), lruMap.size());
+            }
+
+            Map<Integer, Integer> actual = new LinkedHashMap<>();
+            lruMap.forEach(actual::put);
+            assertEquals(expected.toString(), actual.toString());
+            assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).toArray(), lruMap.keySet().toArray());
+        }
+    }
 }
 
 /*
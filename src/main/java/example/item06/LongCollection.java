@@ -0,0 +1,37 @@
+package example.item06;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/*
+ *  long 원소를 박싱하지 않고 보여주는 읽기 전용 뷰. (LongLongMap.keySet() 등)
+ */
+public interface LongCollection {
+
+    int size();
+
+    boolean contains(long value);
+
+    PrimitiveIterator.OfLong iterator();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    default LongStream stream() {
+        return StreamSupport.longStream(
+                Spliterators.spliterator(iterator(), size(), Spliterator.SIZED | Spliterator.NONNULL), false);
+    }
+
+    default long[] toArray() {
+        long[] result = new long[size()];
+        PrimitiveIterator.OfLong it = iterator();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = it.nextLong();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,361 @@
+package example.item06;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ *  long 키와 long 값을 박싱 없이 담는 해시 맵. IntIntMap 과 같은 구조다. (선형 탐사, 키 0 은 따로, backward shift 삭제)
+ *
+ *  HashMap<Long, Long> 은 엔트리마다 Node 와 Long 두 개(24 바이트씩)를 만든다. 여기서는 long[] 두 개에 16 바이트만 쓴다.
+ *  Long.valueOf 캐시(-128 ~ 127) 밖의 값은 put 할 때마다 새 객체가 생기므로 할당 차이는 IntIntMap 보다 더 크다.
+ */
+public class LongLongMap {
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;  // 배열에 든 엔트리 수 (키 0 제외)
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    private final long missingValue;
+
+    private KeySet keySet;
+    private Values valuesView;
+
+    public LongLongMap() {
+        this(16, 0);
+    }
+
+    public LongLongMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    public LongLongMap(int expectedSize, long missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize 는 0 이상이어야 합니다: " + expectedSize);
+        }
+        this.missingValue = missingValue;
+        allocate(IntIntMap.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public long missingValue() {
+        return missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+    }
+
+    public long get(long key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /*
+     *  이전 값을 반환한다. 없었으면 missingValue
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            long previous = hasZeroKey ? zeroValue : missingValue;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            long previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        insertAt(slot, key, value);
+        return missingValue;
+    }
+
+    /*
+     *  key 의 값에 delta 를 더한 결과를 반환한다. 없던 키는 0 에서 시작한다.
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    /*
+     *  제거한 값을 반환한다. 없었으면 missingValue
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            hasZeroKey = false;
+            return zeroValue;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        long previous = values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(LongLongConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        long[] keys = this.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public LongCollection keySet() {
+        KeySet view = keySet;
+        return view != null ? view : (keySet = new KeySet());
+    }
+
+    public LongCollection values() {
+        Values view = valuesView;
+        return view != null ? view : (valuesView = new Values());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof LongLongMap)) {
+            return false;
+        }
+        LongLongMap other = (LongLongMap) o;
+        if (other.size() != size() || other.hasZeroKey != hasZeroKey || hasZeroKey && other.zeroValue != zeroValue) {
+            return false;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key != 0 && (!other.containsKey(key) || other.get(key) != values[slot])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Map.hashCode 와 같은 규칙 (키 해시 ^ 값 해시 의 합)
+    @Override
+    public int hashCode() {
+        int h = hasZeroKey ? Long.hashCode(zeroValue) : 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                h += Long.hashCode(keys[slot]) ^ Long.hashCode(values[slot]);
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return sb.append('}').toString();
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private int slotOf(long key) {
+        long[] keys = this.keys;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    // key 가 있는 칸, 없으면 넣을 빈 칸
+    private int findSlot(long key) {
+        long[] keys = this.keys;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key && keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys, oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void shiftBack(int slot) {
+        long[] keys = this.keys;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private abstract class SlotIterator implements PrimitiveIterator.OfLong {
+        private int slot = advance(0);
+        private boolean zeroPending = hasZeroKey;
+
+        private int advance(int from) {
+            while (from < keys.length && keys[from] == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < keys.length || zeroPending;
+        }
+
+        @Override
+        public long nextLong() {
+            if (slot < keys.length) {
+                int current = slot;
+                slot = advance(slot + 1);
+                return element(current);
+            }
+            if (zeroPending) {
+                zeroPending = false;
+                return element(-1);
+            }
+            throw new NoSuchElementException();
+        }
+
+        // slot 이 -1 이면 키 0 의 엔트리
+        abstract long element(int slot);
+    }
+
+    private final class KeySet implements LongCollection {
+        @Override
+        public int size() {
+            return LongLongMap.this.size();
+        }
+
+        @Override
+        public boolean contains(long value) {
+            return containsKey(value);
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new SlotIterator() {
+                @Override
+                long element(int slot) {
+                    return slot < 0 ? 0 : keys[slot];
+                }
+            };
+        }
+    }
+
+    private final class Values implements LongCollection {
+        @Override
+        public int size() {
+            return LongLongMap.this.size();
+        }
+
+        @Override
+        public boolean contains(long value) {
+            if (hasZeroKey && zeroValue == value) {
+                return true;
+            }
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0 && values[slot] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new SlotIterator() {
+                @Override
+                long element(int slot) {
+                    return slot < 0 ? zeroValue : values[slot];
+                }
+            };
+        }
+    }
+}
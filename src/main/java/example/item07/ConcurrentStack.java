@@ -0,0 +1,149 @@
+package example.item07;
+
+import java.util.EmptyStackException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicStampedReference;
+
+/*
+ *  여러 스레드가 함께 쓰는 락 없는(lock-free) 스택. Item7.Stack 과 같은 push / pop / EmptyStackException 규약을 따른다.
+ *
+ *  1. Treiber 스택
+ *     top 을 AtomicReference 로 두고 compareAndSet 으로 교체한다. 실패하면 다시 시도한다.
+ *     pop 한 노드는 스택에서 완전히 떨어져 나가므로 Item7.Stack 처럼 따로 null 처리할 필요가 없다. (GC 가 회수한다.)
+ *  2. 소거(elimination) 백오프
+ *     스레드가 많으면 모두가 top 하나를 두고 CAS 경쟁을 한다. CAS 에 실패한 스레드는 곧바로 재시도하지 않고 소거 배열의 임의 칸에서 잠깐 기다린다.
+ *     거기서 push 와 pop 이 만나면 스택을 건드리지 않고 값을 직접 주고받는다. (push 직후 pop 한 것과 결과가 같다.)
+ */
+final class ConcurrentStack<E> {
+    private static final int ELIMINATION_SPINS = 64;
+
+    private final AtomicReference<Node<E>> top = new AtomicReference<>();
+    private final EliminationArray<E> elimination =
+            new EliminationArray<>(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    public void push(E e) {
+        Objects.requireNonNull(e);  // null 은 소거 배열에서 pop 을 뜻하므로 넣을 수 없다.
+        Node<E> node = new Node<>(e);
+        while (true) {
+            Node<E> oldTop = top.get();
+            node.next = oldTop;
+            if (top.compareAndSet(oldTop, node)) {
+                return;
+            }
+            if (elimination.visit(e) == null) {
+                return;  // pop 스레드에게 직접 건네주었다.
+            }
+        }
+    }
+
+    public E pop() {
+        while (true) {
+            Node<E> oldTop = top.get();
+            if (oldTop == null) {
+                throw new EmptyStackException();
+            }
+            if (top.compareAndSet(oldTop, oldTop.next)) {
+                return oldTop.item;
+            }
+            E other = elimination.visit(null);
+            if (other != null && other != EliminationArray.TIMEOUT) {
+                return other;  // push 스레드에게서 직접 받았다.
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+
+    private static final class Node<E> {
+        final E item;
+        Node<E> next;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+
+    /*
+     *  두 스레드가 값을 맞바꾸는 교환 칸의 배열.
+     *  push 는 자기 값을, pop 은 null 을 내놓는다. 상대가 반대 연산일 때만 성공이고, 같은 연산끼리 만나면 둘 다 다시 시도한다.
+     */
+    private static final class EliminationArray<E> {
+        static final Object TIMEOUT = new Object();
+
+        private static final int EMPTY = 0;
+        private static final int WAITING = 1;
+        private static final int BUSY = 2;
+
+        private final AtomicStampedReference<Object>[] slots;
+
+        @SuppressWarnings("unchecked")
+        EliminationArray(int capacity) {
+            slots = (AtomicStampedReference<Object>[]) new AtomicStampedReference<?>[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new AtomicStampedReference<>(null, EMPTY);
+            }
+        }
+
+        /*
+         *  push(mine != null)는 상대가 pop 이었으면 null 을, pop(mine == null)은 상대가 push 였으면 그 값을 받는다.
+         *  그 밖의 경우(시간 초과, 같은 연산끼리 만남)에는 push 에게 TIMEOUT 이나 상대의 값을, pop 에게 TIMEOUT 이나 null 을 돌려준다.
+         */
+        @SuppressWarnings("unchecked")
+        E visit(E mine) {
+            AtomicStampedReference<Object> slot = slots[ThreadLocalRandom.current().nextInt(slots.length)];
+            Object result = exchange(slot, mine);
+            if (mine != null) {
+                return result == null ? null : (E) TIMEOUT;
+            }
+            return (E) result;
+        }
+
+        private static Object exchange(AtomicStampedReference<Object> slot, Object mine) {
+            int[] stampHolder = {EMPTY};
+            for (int spins = 0; spins < ELIMINATION_SPINS; spins++) {
+                Object theirs = slot.get(stampHolder);
+                switch (stampHolder[0]) {
+                    case EMPTY:
+                        if (slot.compareAndSet(theirs, mine, EMPTY, WAITING)) {
+                            return awaitPartner(slot, mine);
+                        }
+                        break;
+                    case WAITING:
+                        if (slot.compareAndSet(theirs, mine, WAITING, BUSY)) {
+                            return theirs;
+                        }
+                        break;
+                    case BUSY:
+                        break;
+                    default:
+                        throw new AssertionError(stampHolder[0]);
+                }
+                Thread.onSpinWait();
+            }
+            return TIMEOUT;
+        }
+
+        private static Object awaitPartner(AtomicStampedReference<Object> slot, Object mine) {
+            int[] stampHolder = {WAITING};
+            for (int spins = 0; spins < ELIMINATION_SPINS; spins++) {
+                Object theirs = slot.get(stampHolder);
+                if (stampHolder[0] == BUSY) {
+                    slot.set(null, EMPTY);
+                    return theirs;
+                }
+                Thread.onSpinWait();
+            }
+            if (slot.compareAndSet(mine, null, WAITING, EMPTY)) {
+                return TIMEOUT;
+            }
+            // 포기하려는 순간 상대가 들어왔다.
+            Object theirs = slot.getReference();
+            slot.set(null, EMPTY);
+            return theirs;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package example.item07;
 
-import java.util.Arrays;
-import java.util.EmptyStackException;
-import java.util.Map;
-import java.util.WeakHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
  *   아이템 7. 다 쓴 객체 참조를 해제하라.
@@ -54,6 +60,114 @@ public class Item7 {
         }
     }
 
+    /*
+     *   기본 타입 전용 스택
+     *   Stack 에 int 를 넣으면 원소마다 Integer 로 박싱된다. (아이템 6, 61)
+     *   기본 타입 배열에 바로 저장하면 박싱이 없고, 배열에 객체 참조가 없으므로 pop() 에서 null 처리해 줄 것도 없다.
+     *   다 쓴 참조 해제가 필요한 것은 "스스로 메모리를 관리하는 클래스"가 객체 참조를 쥐고 있을 때뿐이다.
+     */
+    static class IntStack {
+        private int[] elements;
+        private int size = 0;
+        private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+        public IntStack() {
+            elements = new int[DEFAULT_INITIAL_CAPACITY];
+        }
+
+        public void push(int e) {
+            ensureCapacity();
+            elements[size++] = e;
+        }
+
+        public int pop() {
+            if (size == 0)
+                throw new EmptyStackException();
+            return elements[--size];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void ensureCapacity() {
+            if (elements.length == size)
+                elements = Arrays.copyOf(elements, 2 * size + 1);
+        }
+    }
+
+    static class LongStack {
+        private long[] elements;
+        private int size = 0;
+        private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+        public LongStack() {
+            elements = new long[DEFAULT_INITIAL_CAPACITY];
+        }
+
+        public void push(long e) {
+            ensureCapacity();
+            elements[size++] = e;
+        }
+
+        public long pop() {
+            if (size == 0)
+                throw new EmptyStackException();
+            return elements[--size];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void ensureCapacity() {
+            if (elements.length == size)
+                elements = Arrays.copyOf(elements, 2 * size + 1);
+        }
+    }
+
+    static class DoubleStack {
+        private double[] elements;
+        private int size = 0;
+        private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+        public DoubleStack() {
+            elements = new double[DEFAULT_INITIAL_CAPACITY];
+        }
+
+        public void push(double e) {
+            ensureCapacity();
+            elements[size++] = e;
+        }
+
+        public double pop() {
+            if (size == 0)
+                throw new EmptyStackException();
+            return elements[--size];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void ensureCapacity() {
+            if (elements.length == size)
+                elements = Arrays.copyOf(elements, 2 * size + 1);
+        }
+    }
+
     /*
      *   GC는 언제 작동하는 가
      */
@@ -92,4 +206,52 @@ public class Item7 {
         key = null; // 키만 null로 만들어주어도 GC에 의해 해당 엔트리는 자동으로 제거된다.
     }
 
+    @Test
+    public void primitive_stack_test() {
+        IntStack intStack = new IntStack();
+        LongStack longStack = new LongStack();
+        DoubleStack doubleStack = new DoubleStack();
+        for (int i = 0; i < 100; i++) {  // 초기 용량(16)을 넘겨서 배열이 늘어나도록 한다.
+            intStack.push(i);
+            longStack.push(i);
+            doubleStack.push(i);
+        }
+        for (int i = 99; i >= 0; i--) {
+            assertEquals(i, intStack.pop());
+            assertEquals(i, longStack.pop());
+            assertEquals(i, doubleStack.pop());
+        }
+        assertTrue(intStack.isEmpty());
+        assertThrows(EmptyStackException.class, intStack::pop);
+        assertThrows(EmptyStackException.class, longStack::pop);
+        assertThrows(EmptyStackException.class, doubleStack::pop);
+    }
+
+    @Test
+    public void concurrent_stack_test() throws Exception {
+        ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+        assertThrows(EmptyStackException.class, stack::pop);
+
+        int threads = 8;
+        int operations = 100_000;
+        Set<Integer> popped = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * operations;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < operations; i++) {
+                    stack.push(base + i);
+                    assertTrue(popped.add(stack.pop()));  // 같은 값을 두 번 꺼내지 않는다.
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);  // 작업 스레드에서 실패한 검증을 여기서 다시 던진다.
+        }
+        executor.shutdown();
+
+        assertTrue(stack.isEmpty());
+        assertEquals(threads * operations, popped.size());  // 넣은 값은 모두 한 번씩 꺼내졌다.
+    }
 }
@@ -0,0 +1,200 @@
+package example.item09;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/*
+ *  줄이 아주 많은 출력을 위한 출력기. try-with-resources 로 쓴다.
+ *
+ *  System.out.println 은 호출마다 락을 잡고, 문자열을 인코딩하고, 줄이 끝날 때마다 flush 해서 시스템 콜을 한다.
+ *  이 출력기는 재사용하는 직접(direct) ByteBuffer 에 UTF-8 로 바로 인코딩해 두었다가, 버퍼가 가득 차거나 닫힐 때 한 번에 채널로 쓴다.
+ *  - print(...) 는 this 를 반환하므로 out.print(key).print(" : ").println(value) 처럼 문자열을 이어 붙이지 않고 한 줄을 쓸 수 있다.
+ *  - 숫자도 String 을 만들지 않고 바로 숫자 글자를 쓴다.
+ *  - println 은 System.out.println 처럼 System.lineSeparator() 로 줄을 바꾼다. (Windows 에서는 \r\n)
+ *  - 스레드 세이프하지 않다. 한 스레드에서만 쓴다.
+ *  - 버퍼에 남은 내용은 flush 나 close 를 해야 나간다. System.out 과 섞어 쓰면 순서가 뒤바뀔 수 있다.
+ *  - 닫은 뒤에 쓰면 IllegalStateException, 채널에 쓰다 실패하면 UncheckedIOException 을 던진다.
+ */
+public final class BatchedOutput implements AutoCloseable {
+    static final int DEFAULT_CAPACITY = 64 * 1024;
+    static final int MIN_CAPACITY = 20;  // long 하나(부호와 19 자리)를 한 번에 담을 수 있어야 한다.
+    private static final int MAX_BYTES_PER_CHAR = 4;
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[MIN_CAPACITY];
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private boolean closed;
+
+    public BatchedOutput(WritableByteChannel channel, int capacity, boolean closeChannel) {
+        if (capacity < MIN_CAPACITY) {
+            throw new IllegalArgumentException("버퍼 크기는 " + MIN_CAPACITY + " 바이트 이상이어야 합니다: " + capacity);
+        }
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /*
+     *  표준 출력(파일 디스크립터 1)의 채널에 쓴다. 닫아도 표준 출력 자체는 닫지 않는다.
+     */
+    public static BatchedOutput stdout() {
+        System.out.flush();  // 이미 System.out 에 쓴 내용이 먼저 나가도록 한다.
+        return new BatchedOutput(new FileOutputStream(FileDescriptor.out).getChannel(), DEFAULT_CAPACITY, false);
+    }
+
+    public BatchedOutput print(CharSequence text) {
+        checkOpen();
+        if (text == null) {
+            text = "null";
+        }
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                buffer.put((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                encode(Character.toCodePoint(c, text.charAt(++i)));
+            } else {
+                encode(Character.isSurrogate(c) ? '?' : c);  // 짝이 없는 서로게이트는 String.getBytes 처럼 '?' 로 쓴다.
+            }
+        }
+        return this;
+    }
+
+    public BatchedOutput print(char c) {
+        checkOpen();
+        encode(Character.isSurrogate(c) ? '?' : c);
+        return this;
+    }
+
+    public BatchedOutput print(long value) {
+        checkOpen();
+        if (buffer.remaining() < digits.length) {
+            flush();
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        // 음수로 바꿔서 나눠야 Long.MIN_VALUE 도 처리할 수 있다.
+        long negative = value < 0 ? value : -value;
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        } while (negative != 0);
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+        return this;
+    }
+
+    // 박싱된 정수(Map<String, Long> 의 값 등)도 String 을 만들지 않고 쓴다.
+    public BatchedOutput print(Object value) {
+        if (value instanceof CharSequence) {
+            return print((CharSequence) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return print(((Number) value).longValue());
+        }
+        return print(String.valueOf(value));
+    }
+
+    public BatchedOutput println() {
+        checkOpen();
+        if (buffer.remaining() < lineSeparator.length) {
+            flush();
+        }
+        buffer.put(lineSeparator);
+        return this;
+    }
+
+    public BatchedOutput println(CharSequence text) {
+        return print(text).println();
+    }
+
+    // 없으면 println('a') 가 println(long) 으로 넘어가 97 이 찍힌다.
+    public BatchedOutput println(char c) {
+        return print(c).println();
+    }
+
+    public BatchedOutput println(long value) {
+        return print(value).println();
+    }
+
+    public BatchedOutput println(Object value) {
+        return print(value).println();
+    }
+
+    /*
+     *  버퍼에 모인 바이트를 모두 채널에 쓴다.
+     */
+    public void flush() {
+        checkOpen();
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            if (closeChannel) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private void encode(int codePoint) {
+        if (buffer.remaining() < MAX_BYTES_PER_CHAR) {
+            flush();
+        }
+        if (codePoint < 0x80) {
+            buffer.put((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            buffer.put((byte) (0xC0 | codePoint >> 6));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            buffer.put((byte) (0xE0 | codePoint >> 12));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        } else {
+            buffer.put((byte) (0xF0 | codePoint >> 18));
+            buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("이미 닫힌 출력기입니다.");
+        }
+    }
+}
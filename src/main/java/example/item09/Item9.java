@@ -1,8 +1,14 @@
 package example.item09;
 
+import org.junit.jupiter.api.Test;
+
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 /*
  *   아이템 9. try-finally보다는 try-with-resources를 사용하라.
  *
@@ -15,6 +21,17 @@ import java.util.Scanner;
 public class Item9 {
     public static void main(String[] args) throws IOException {
 
+        /*
+         *   줄이 아주 많을 때는 System.out 대신 BatchedOutput 을 쓴다.
+         *   닫힐 때 버퍼에 남은 내용을 내보내므로, try-with-resources 로 감싸면 flush 를 잊을 일이 없다.
+         *   BatchedOutput 을 닫아도 표준 출력은 닫히지 않는다. 반면 아래 예제들은 PrintWriter 를 닫으면서 System.out 까지 닫으므로, 그 뒤에는 아무것도 출력할 수 없다.
+         */
+        try (BatchedOutput out = BatchedOutput.stdout()) {
+            for (int i = 1; i <= 3; i++) {
+                out.print("line ").println(i);
+            }
+        }
+
         /*
         *   try-finally
         */
@@ -47,4 +64,38 @@ public class Item9 {
             // 생략 ...
         }
     }
+
+    @Test
+    public void batchedOutputTest() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        String newLine = System.lineSeparator();
+        // 버퍼를 작게 해서 가득 찰 때마다 내보내는 경우를 함께 확인한다.
+        try (BatchedOutput out = new BatchedOutput(Channels.newChannel(bytes), BatchedOutput.MIN_CAPACITY, true)) {
+            String[] texts = {"java", "람다", "Straße", "😀 emoji", "\uD800 lone", "", "a somewhat longer line than the buffer"};
+            long[] numbers = {0, 7, -42, 1234567890123L, Long.MIN_VALUE, Long.MAX_VALUE};
+            for (int i = 0; i < 100; i++) {
+                String text = texts[i % texts.length];
+                long number = numbers[i % numbers.length];
+                out.print(text).print(" : ").print(number).print('λ').println();
+                expected.append(text).append(" : ").append(number).append('λ').append(newLine);
+            }
+            out.println(Long.valueOf(5)).println((Object) null).println('x').println(1.5);
+            expected.append("5").append(newLine).append("null").append(newLine)
+                    .append("x").append(newLine).append("1.5").append(newLine);
+        }
+        assertEquals(new String(expected.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+                bytes.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+    }
+
+    @Test
+    public void closedBatchedOutputTest() {
+        BatchedOutput out = new BatchedOutput(Channels.newChannel(new ByteArrayOutputStream()), BatchedOutput.MIN_CAPACITY, true);
+        out.close();
+        out.close();  // 여러 번 닫아도 된다.
+        assertThrows(IllegalStateException.class, () -> out.println("after close"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchedOutput(Channels.newChannel(new ByteArrayOutputStream()), BatchedOutput.MIN_CAPACITY - 1, true));
+    }
 }
@@ -1,7 +1,13 @@
 package example.item15;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.stream.IntStream;
+
 /*
  *   아이템 15. 클래스와 멤버의 접근 권한을 최소화하라.
  *
@@ -43,6 +49,136 @@ public class Item15 {
         item.publicPrice = -20000;  // 해당 필드에 담을 수 있는 값을 제한할 방법이 없다. 클라이언트에서 마음 껏 수정가능하다.
         item.setPrivatePrice(20000);  // 익셉션 발생 ! -> 해당 필드에 담을 수 있는 값을 제한할 수 있다.
     }
+
+    @Test
+    public void stackless_price_limit_exception_test() {
+        Item item = new Item(10000, 10000);
+        PriceLimitException withStack = Assertions.assertThrows(PriceLimitException.class, () -> item.setPrivatePrice(20000));
+        PriceLimitException stackless = Assertions.assertThrows(PriceLimitException.class, () -> item.setPrivatePrice(-1, false));
+
+        Assertions.assertTrue(withStack.getStackTrace().length > 0);
+        Assertions.assertEquals(0, stackless.getStackTrace().length);
+        Assertions.assertEquals(withStack.getMessage(), stackless.getMessage());
+        Assertions.assertEquals(10000, item.getPrivatePrice());
+    }
+
+    @Test
+    public void bulk_price_validation_test() {
+        int[] prices = {0, 10000, -1, 10001, 500, Integer.MIN_VALUE, Integer.MAX_VALUE, 9999};
+        PriceValidation result = PriceValidation.validate(prices);
+
+        Assertions.assertEquals(8, result.size());
+        Assertions.assertEquals(4, result.rejectedCount());
+        Assertions.assertEquals(BitSet.valueOf(new long[]{0b0110_1100}), result.rejected());
+        Assertions.assertFalse(result.isRejected(0));
+        Assertions.assertNull(result.reason(1));
+        Assertions.assertEquals(PriceValidation.Reason.BELOW_MIN, result.reason(2));
+        Assertions.assertEquals(PriceValidation.Reason.ABOVE_MAX, result.reason(3));
+        Assertions.assertEquals(PriceValidation.Reason.BELOW_MIN, result.reason(5));
+        Assertions.assertEquals(PriceValidation.Reason.ABOVE_MAX, result.reason(6));
+        Assertions.assertEquals(5, result.nextRejected(4));
+        Assertions.assertEquals(-1, result.nextRejected(7));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> result.isRejected(8));
+
+        Item[] items = new Item[prices.length];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(1, 1);
+        }
+        Assertions.assertEquals(result.rejected(), Item.setPrivatePrices(items, prices).rejected());
+        for (int i = 0; i < items.length; i++) {
+            Assertions.assertEquals(result.isRejected(i) ? 1 : prices[i], items[i].getPrivatePrice());
+        }
+    }
+
+    @Test
+    public void bulk_price_validation_matches_single_item_test() {
+        int[] prices = new Random(42).ints(1000, -5000, 15000).toArray();
+        PriceValidation result = PriceValidation.validate(prices, 0, 10000);
+        int rejected = 0;
+        for (int i = 0; i < prices.length; i++) {
+            try {
+                new Item(0, 0).setPrivatePrice(prices[i], false);
+                Assertions.assertFalse(result.isRejected(i));
+            } catch (PriceLimitException e) {
+                Assertions.assertEquals(prices[i] < 0 ? PriceValidation.Reason.BELOW_MIN : PriceValidation.Reason.ABOVE_MAX,
+                        result.reason(i));
+                rejected++;
+            }
+        }
+        Assertions.assertEquals(rejected, result.rejectedCount());
+        Assertions.assertEquals(0, PriceValidation.validate(new int[0]).rejectedCount());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PriceValidation.validate(prices, 1, 0));
+    }
+
+    @Test
+    public void price_catalog_test() throws PriceLimitException {
+        PriceCatalog catalog = new PriceCatalog(new Item(100, 90), new Item(200, 180), new Item(300, 270));
+        PriceCatalog.Snapshot first = catalog.snapshot();
+
+        Assertions.assertEquals(3, first.size());
+        Assertions.assertEquals(200, catalog.publicPrice(1));
+        Assertions.assertEquals(270, catalog.privatePrice(2));
+
+        PriceCatalog.Snapshot second = catalog.updatePrivatePrices(new int[]{0, 2, 0}, new int[]{10, 20, 30});
+        Assertions.assertEquals(first.version() + 1, second.version());
+        Assertions.assertArrayEquals(new int[]{30, 180, 20}, catalog.snapshot().privatePrices());
+        Assertions.assertEquals(100, catalog.publicPrice(0));
+        Assertions.assertArrayEquals(new int[]{90, 180, 270}, first.privatePrices());  // 이미 받은 스냅샷은 바뀌지 않는다.
+
+        // 하나라도 범위를 벗어나면 아무것도 바뀌지 않는다.
+        PriceLimitException e = Assertions.assertThrows(PriceLimitException.class,
+                () -> catalog.updatePrivatePrices(new int[]{0, 1}, new int[]{1, 10001}));
+        Assertions.assertEquals(0, e.getStackTrace().length);
+        Assertions.assertSame(second, catalog.snapshot());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> catalog.updatePrivatePrices(new int[]{3}, new int[]{1}));
+        Assertions.assertSame(second, catalog.snapshot());
+
+        Item unchecked = new Item(1, 1);
+        unchecked.publicPrice = -20000;
+        Assertions.assertThrows(PriceLimitException.class, () -> catalog.replace(unchecked));
+        Assertions.assertSame(second, catalog.snapshot());
+
+        catalog.replace(new Item(5, 5));
+        Assertions.assertEquals(1, catalog.snapshot().size());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> catalog.privatePrice(1));
+    }
+
+    @Test
+    public void price_catalog_readers_never_see_half_applied_batch_test() throws PriceLimitException, InterruptedException {
+        int size = 10_000;
+        Item[] items = new Item[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = new Item(0, 0);
+        }
+        PriceCatalog catalog = new PriceCatalog(items);
+        int[] ids = IntStream.range(0, size).toArray();
+
+        // 쓰는 쪽은 모든 가격을 같은 값으로 바꾸므로, 한 스냅샷 안의 가격은 언제나 모두 같아야 한다.
+        Thread writer = new Thread(() -> {
+            try {
+                for (int price = 1; price <= 200; price++) {
+                    int[] prices = new int[size];
+                    Arrays.fill(prices, price);
+                    catalog.updatePrivatePrices(ids, prices);
+                }
+            } catch (PriceLimitException e) {
+                throw new AssertionError(e);
+            }
+        });
+        writer.start();
+        long lastVersion = -1;
+        while (writer.isAlive() || lastVersion < catalog.snapshot().version()) {
+            PriceCatalog.Snapshot snapshot = catalog.snapshot();
+            Assertions.assertTrue(snapshot.version() >= lastVersion);
+            lastVersion = snapshot.version();
+            int expected = snapshot.privatePrice(0);
+            for (int id = 1; id < size; id++) {
+                Assertions.assertEquals(expected, snapshot.privatePrice(id));
+            }
+        }
+        writer.join();
+        Assertions.assertEquals(200, catalog.privatePrice(size - 1));
+    }
 }
 
 /*
@@ -51,6 +187,9 @@ public class Item15 {
  *   이유 2. public 가변 필드를 갖는 클래스는 스레드 세이프하지 않다.
  */
 class Item {
+    static final int MIN_PRICE = 0;
+    static final int MAX_PRICE = 10000;
+
     public Integer publicPrice;  // (X)
     private Integer privatePrice;  // (O)
 
@@ -64,15 +203,46 @@ class Item {
     }
 
     public void setPrivatePrice(Integer privatePrice) throws PriceLimitException {
-        if (privatePrice < 0 || privatePrice > 10000) {
-            throw new PriceLimitException("제한범위를 벗어난 가격입니다!");
+        setPrivatePrice(privatePrice, true);
+    }
+
+    /*
+     *  거부가 흔한 곳에서는 captureStackTrace 를 false 로 준다. 스택 트레이스를 채우지 않는 예외는 만드는 비용이 훨씬 싸다.
+     */
+    public void setPrivatePrice(Integer privatePrice, boolean captureStackTrace) throws PriceLimitException {
+        if (privatePrice < MIN_PRICE || privatePrice > MAX_PRICE) {
+            throw new PriceLimitException("제한범위를 벗어난 가격입니다!", captureStackTrace);
         }
         this.privatePrice = privatePrice;
     }
+
+    /*
+     *  items[i] 의 가격을 prices[i] 로 바꾼다. 범위를 벗어난 가격은 예외 없이 건너뛰고, 어느 것이 왜 거부됐는지 결과로 돌려준다.
+     */
+    static PriceValidation setPrivatePrices(Item[] items, int[] prices) {
+        if (items.length != prices.length) {
+            throw new IllegalArgumentException("items 와 prices 의 길이가 다릅니다: " + items.length + ", " + prices.length);
+        }
+        PriceValidation result = PriceValidation.validate(prices);
+        int from = 0;
+        for (int rejected = result.nextRejected(0); from < items.length; rejected = result.nextRejected(from)) {
+            int to = rejected < 0 ? items.length : rejected;
+            for (int i = from; i < to; i++) {
+                items[i].privatePrice = prices[i];
+            }
+            from = to + 1;
+        }
+        return result;
+    }
 }
 
 class PriceLimitException extends Throwable {
     public PriceLimitException(String message) {
         super(message);
     }
+
+    // writableStackTrace 가 false 면 fillInStackTrace 가 아무 일도 하지 않는다.
+    public PriceLimitException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,132 @@
+package example.item15;
+
+import java.util.Arrays;
+
+/*
+ *  상품 번호(0 부터 size - 1)로 가격을 찾는 카탈로그. 읽는 쪽은 락 없이, 쓰는 쪽은 통째로 바꿔 끼운다(copy-on-write).
+ *
+ *  Item 의 publicPrice / privatePrice 는 가변 필드라서, 한 스레드가 여러 가격을 고치는 동안 다른 스레드는 고치다 만 상태를 읽을 수 있다.
+ *  - Snapshot 은 가격을 기본 타입 배열 두 개에 담은 불변 객체다. 한 번 게시(publish)한 배열은 다시 쓰지 않는다.
+ *  - 읽기는 volatile 필드를 한 번 읽고 배열을 읽는 것이 전부라서, 쓰는 쪽이 무엇을 하든 기다리지 않는다(wait-free).
+ *  - 쓰기는 현재 스냅샷의 배열을 복사해 고친 뒤, 가격이 모두 0 ~ 10000 안에 있을 때만 volatile 필드에 새 스냅샷을 대입한다.
+ *    읽는 쪽은 바꾸기 전 스냅샷이나 바꾼 뒤 스냅샷 중 하나를 보고, 절반만 반영된 배치는 볼 수 없다.
+ *    범위를 벗어난 가격이 하나라도 있으면 아무것도 바꾸지 않고 PriceLimitException 을 던진다.
+ *  - 쓰기끼리는 synchronized 로 줄을 세운다. 그러지 않으면 동시에 복사한 두 배치 중 하나가 다른 하나를 덮어써 사라진다.
+ *    쓰기마다 배열 전체를 복사하므로 O(size) 다. 드물게 큰 배치로 바꾸는 용도에 맞고, 가격 하나씩 자주 바꾸는 용도에는 맞지 않는다.
+ *  - 여러 가격을 같은 시점의 값으로 읽으려면 snapshot() 을 한 번 받아 그것에서 읽는다. privatePrice(id) 를 두 번 부르면 그 사이에 바뀔 수 있다.
+ */
+final class PriceCatalog {
+    private volatile Snapshot current;
+
+    PriceCatalog(Item... items) throws PriceLimitException {
+        this.current = Snapshot.of(items, 0);
+    }
+
+    Snapshot snapshot() {
+        return current;
+    }
+
+    int publicPrice(int id) {
+        return current.publicPrice(id);
+    }
+
+    int privatePrice(int id) {
+        return current.privatePrice(id);
+    }
+
+    /*
+     *  카탈로그 전체를 items 로 바꾼다. 상품 수가 달라져도 된다.
+     */
+    synchronized Snapshot replace(Item... items) throws PriceLimitException {
+        return current = Snapshot.of(items, current.version + 1);
+    }
+
+    /*
+     *  ids[i] 번 상품의 비공개 가격을 privatePrices[i] 로 바꾼다. 같은 번호가 여러 번 나오면 마지막 값이 남는다.
+     */
+    synchronized Snapshot updatePrivatePrices(int[] ids, int[] privatePrices) throws PriceLimitException {
+        if (ids.length != privatePrices.length) {
+            throw new IllegalArgumentException("ids 와 privatePrices 의 길이가 다릅니다: " + ids.length + ", " + privatePrices.length);
+        }
+        checkPrices(privatePrices, "비공개");
+        Snapshot base = current;
+        int[] updated = base.privatePrices.clone();
+        for (int i = 0; i < ids.length; i++) {
+            updated[base.checkId(ids[i])] = privatePrices[i];
+        }
+        return current = new Snapshot(base.publicPrices, updated, base.version + 1);  // 공개 가격 배열은 그대로 함께 쓴다.
+    }
+
+    /*
+     *  거부가 흔하지 않고, 거부되면 배치 전체를 버리므로 예외는 배치당 하나다. 그래도 스택 트레이스는 채우지 않는다.
+     */
+    private static void checkPrices(int[] prices, String kind) throws PriceLimitException {
+        PriceValidation validation = PriceValidation.validate(prices);
+        if (validation.rejectedCount() > 0) {
+            int index = validation.nextRejected(0);
+            throw new PriceLimitException("제한범위를 벗어난 " + kind + " 가격입니다! index " + index + ": " + prices[index]
+                    + " (" + validation.reason(index) + ", 전체 " + validation.rejectedCount() + "개)", false);
+        }
+    }
+
+    static final class Snapshot {
+        private final int[] publicPrices;
+        private final int[] privatePrices;
+        private final long version;
+
+        private Snapshot(int[] publicPrices, int[] privatePrices, long version) {
+            this.publicPrices = publicPrices;
+            this.privatePrices = privatePrices;
+            this.version = version;
+        }
+
+        private static Snapshot of(Item[] items, long version) throws PriceLimitException {
+            int[] publicPrices = new int[items.length];
+            int[] privatePrices = new int[items.length];
+            for (int i = 0; i < items.length; i++) {
+                publicPrices[i] = items[i].publicPrice;
+                privatePrices[i] = items[i].getPrivatePrice();
+            }
+            // publicPrice 는 public 필드라서 아무 값이나 들어 있을 수 있다. 카탈로그에 넣을 때 함께 검사한다.
+            checkPrices(publicPrices, "공개");
+            checkPrices(privatePrices, "비공개");
+            return new Snapshot(publicPrices, privatePrices, version);
+        }
+
+        int size() {
+            return privatePrices.length;
+        }
+
+        /*
+         *  게시할 때마다 1 씩 커진다. 두 번 읽은 스냅샷이 같은 것인지 확인할 때 쓴다.
+         */
+        long version() {
+            return version;
+        }
+
+        int publicPrice(int id) {
+            return publicPrices[checkId(id)];
+        }
+
+        int privatePrice(int id) {
+            return privatePrices[checkId(id)];
+        }
+
+        int[] privatePrices() {
+            return privatePrices.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{version=" + version + ", size=" + size() + ", privatePrices=" + Arrays.toString(
+                    Arrays.copyOf(privatePrices, Math.min(size(), 10))) + (size() > 10 ? "..." : "") + "}";
+        }
+
+        private int checkId(int id) {
+            if (id < 0 || id >= privatePrices.length) {
+                throw new IndexOutOfBoundsException("상품 번호: " + id + ", 상품 수: " + privatePrices.length);
+            }
+            return id;
+        }
+    }
+}
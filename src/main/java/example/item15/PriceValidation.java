@@ -0,0 +1,91 @@
+package example.item15;
+
+import java.util.BitSet;
+
+/*
+ *  가격 열(int[])을 한 번에 검사한 결과. 예외를 던지지 않는다.
+ *
+ *  Item.setPrivatePrice 는 범위를 벗어난 가격마다 PriceLimitException 을 만들고, 그때마다 스택 트레이스를 채운다.
+ *  가격 수백만 개 중 상당수가 거부되는 일괄 작업에서는 이 스택 트레이스 수집이 시간 대부분을 차지한다.
+ *  - 거부된 인덱스와 그중 최솟값보다 작았던 인덱스를 BitSet 두 개(가격 64 개당 long 하나씩)에 담는다. 거부됐는데 작지 않았으면 ABOVE_MAX 다.
+ *  - 검사 루프에는 분기가 없다. 범위 검사는 두 뺄셈의 부호 비트로 하고, 두 비트를 조건 없이 OR 한다.
+ *    그래서 거부 비율이 0% 든 50% 든 걸리는 시간이 거의 같다.
+ *  - reason(index) 는 비트 두 개만 보므로 O(1) 이고 아무것도 할당하지 않는다. 전부 볼 때는 nextRejected 로 차례로 돈다.
+ */
+final class PriceValidation {
+    enum Reason { BELOW_MIN, ABOVE_MAX }
+
+    private final int size;
+    private final BitSet rejected;
+    private final BitSet belowMin;
+    private final int rejectedCount;
+
+    private PriceValidation(int size, BitSet rejected, BitSet belowMin) {
+        this.size = size;
+        this.rejected = rejected;
+        this.belowMin = belowMin;
+        this.rejectedCount = rejected.cardinality();
+    }
+
+    static PriceValidation validate(int[] prices) {
+        return validate(prices, Item.MIN_PRICE, Item.MAX_PRICE);
+    }
+
+    static PriceValidation validate(int[] prices, int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min(" + min + ") 이 max(" + max + ") 보다 큽니다.");
+        }
+        long range = (long) max - min;
+        long[] words = new long[(prices.length + 63) >>> 6];
+        long[] belowWords = new long[words.length];
+        for (int i = 0; i < prices.length; i++) {
+            long offset = (long) prices[i] - min;
+            // offset < 0 이거나 range - offset < 0 이면 부호 비트가 켜진다. long 으로 계산하므로 넘침은 없다.
+            long bad = (offset | range - offset) >>> 63;
+            long below = offset >>> 63;
+            words[i >>> 6] |= bad << i;
+            belowWords[i >>> 6] |= below << i;
+        }
+        return new PriceValidation(prices.length, BitSet.valueOf(words), BitSet.valueOf(belowWords));
+    }
+
+    int size() {
+        return size;
+    }
+
+    int rejectedCount() {
+        return rejectedCount;
+    }
+
+    boolean isRejected(int index) {
+        checkIndex(index);
+        return rejected.get(index);
+    }
+
+    /*
+     *  fromIndex 이후의 첫 거부 인덱스. 없으면 -1
+     */
+    int nextRejected(int fromIndex) {
+        return rejected.nextSetBit(fromIndex);
+    }
+
+    /*
+     *  index 의 가격이 거부된 사유. 통과했으면 null
+     */
+    Reason reason(int index) {
+        if (!isRejected(index)) {
+            return null;
+        }
+        return belowMin.get(index) ? Reason.BELOW_MIN : Reason.ABOVE_MAX;
+    }
+
+    BitSet rejected() {
+        return (BitSet) rejected.clone();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+}
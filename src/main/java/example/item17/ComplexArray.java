@@ -0,0 +1,218 @@
+package example.item17;
+
+import java.util.Arrays;
+
+/*
+ *  Complex 의 가변 동반 클래스(companion class).
+ *
+ *  불변 클래스의 단점은 값마다 새 객체가 필요하다는 것이다. 책에서는 이 문제를 해결하기 위해
+ *  다단계 연산을 한 번에 처리하는 가변 동반 클래스를 제공하라고 한다. (String 과 StringBuilder 의 관계)
+ *
+ *  ComplexArray 는 복소수 여러 개를 실수부 배열과 허수부 배열로 나눠 저장한다. (structure of arrays)
+ *  - 사칙연산을 배열 단위로 수행하므로 원소마다 객체를 만들지 않는다.
+ *  - 결과를 받을 배열(out)을 직접 넘길 수 있고, out 에 피연산자 자신을 넘기면 제자리(in-place) 연산이 된다.
+ *  - 각 원소의 계산식과 연산 순서는 Complex 와 똑같아서 결과가 비트 단위까지 같다.
+ *  - 반복문은 의존성 없는 단순한 카운트 루프라 HotSpot C2 가 SIMD 명령으로 자동 벡터화할 수 있다.
+ */
+final class ComplexArray {
+    private final double[] re;
+    private final double[] im;
+
+    ComplexArray(int length) {
+        this.re = new double[length];
+        this.im = new double[length];
+    }
+
+    private ComplexArray(double[] re, double[] im) {
+        if (re.length != im.length) {
+            throw new IllegalArgumentException("실수부와 허수부의 길이가 다릅니다.");
+        }
+        this.re = re;
+        this.im = im;
+    }
+
+    static ComplexArray of(Complex... values) {
+        ComplexArray array = new ComplexArray(values.length);
+        for (int i = 0; i < values.length; i++) {
+            array.set(i, values[i]);
+        }
+        return array;
+    }
+
+    // 배열을 복사하지 않고 감싼다. 이후 배열을 수정하면 ComplexArray 에도 반영된다.
+    static ComplexArray wrap(double[] re, double[] im) {
+        return new ComplexArray(re, im);
+    }
+
+    int length() {
+        return re.length;
+    }
+
+    double realPart(int i) {
+        return re[i];
+    }
+
+    double imaginaryPart(int i) {
+        return im[i];
+    }
+
+    Complex get(int i) {
+        return new Complex(re[i], im[i]);
+    }
+
+    void set(int i, Complex c) {
+        set(i, c.realPart(), c.imaginaryPart());
+    }
+
+    void set(int i, double re, double im) {
+        this.re[i] = re;
+        this.im[i] = im;
+    }
+
+    Complex[] toComplexArray() {
+        Complex[] result = new Complex[length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = get(i);
+        }
+        return result;
+    }
+
+    ComplexArray copy() {
+        return new ComplexArray(re.clone(), im.clone());
+    }
+
+    /*
+     *  새 배열에 결과를 담아 반환한다. (Complex 처럼 자신은 수정하지 않는다.)
+     */
+    ComplexArray plus(ComplexArray c) {
+        return plus(this, c, new ComplexArray(length()));
+    }
+
+    ComplexArray minus(ComplexArray c) {
+        return minus(this, c, new ComplexArray(length()));
+    }
+
+    ComplexArray times(ComplexArray c) {
+        return times(this, c, new ComplexArray(length()));
+    }
+
+    ComplexArray dividedBy(ComplexArray c) {
+        return dividedBy(this, c, new ComplexArray(length()));
+    }
+
+    ComplexArray conjugate() {
+        return conjugate(this, new ComplexArray(length()));
+    }
+
+    /*
+     *  결과를 out 에 담는다. out 은 a 나 b 와 같은 배열이어도 된다.
+     */
+    static ComplexArray plus(ComplexArray a, ComplexArray b, ComplexArray out) {
+        int n = checkLength(a, b, out);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, or = out.re, oi = out.im;
+        for (int i = 0; i < n; i++) {
+            or[i] = ar[i] + br[i];
+            oi[i] = ai[i] + bi[i];
+        }
+        return out;
+    }
+
+    static ComplexArray minus(ComplexArray a, ComplexArray b, ComplexArray out) {
+        int n = checkLength(a, b, out);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, or = out.re, oi = out.im;
+        for (int i = 0; i < n; i++) {
+            or[i] = ar[i] - br[i];
+            oi[i] = ai[i] - bi[i];
+        }
+        return out;
+    }
+
+    static ComplexArray times(ComplexArray a, ComplexArray b, ComplexArray out) {
+        int n = checkLength(a, b, out);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, or = out.re, oi = out.im;
+        for (int i = 0; i < n; i++) {
+            double re = ar[i], im = ai[i], cre = br[i], cim = bi[i];
+            or[i] = re * cre - im * cim;
+            oi[i] = re * cim + im * cre;
+        }
+        return out;
+    }
+
+    static ComplexArray dividedBy(ComplexArray a, ComplexArray b, ComplexArray out) {
+        int n = checkLength(a, b, out);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, or = out.re, oi = out.im;
+        for (int i = 0; i < n; i++) {
+            double re = ar[i], im = ai[i], cre = br[i], cim = bi[i];
+            double tmp = cre * cre + cim * cim;
+            or[i] = (re * cre + im * cim) / tmp;
+            oi[i] = (im * cre - re * cim) / tmp;
+        }
+        return out;
+    }
+
+    static ComplexArray conjugate(ComplexArray a, ComplexArray out) {
+        int n = checkLength(a, a, out);
+        double[] ar = a.re, ai = a.im, or = out.re, oi = out.im;
+        for (int i = 0; i < n; i++) {
+            or[i] = ar[i];
+            oi[i] = -ai[i];
+        }
+        return out;
+    }
+
+    /*
+     *  각 원소의 크기 |z| = sqrt(re * re + im * im) 를 out 에 담는다.
+     *  Math.hypot 은 오버플로를 피하는 대신 훨씬 느려서 여기서는 쓰지 않는다.
+     */
+    double[] abs(double[] out) {
+        if (out.length != length()) {
+            throw new IllegalArgumentException("길이가 다른 배열입니다.");
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.sqrt(re[i] * re[i] + im[i] * im[i]);
+        }
+        return out;
+    }
+
+    double[] abs() {
+        return abs(new double[length()]);
+    }
+
+    // FFT 처럼 배열을 직접 다뤄야 하는 같은 패키지의 코드를 위한 접근자
+    double[] real() {
+        return re;
+    }
+
+    double[] imaginary() {
+        return im;
+    }
+
+    private static int checkLength(ComplexArray a, ComplexArray b, ComplexArray out) {
+        int n = a.length();
+        if (b.length() != n || out.length() != n) {
+            throw new IllegalArgumentException("길이가 다른 배열입니다.");
+        }
+        return n;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ComplexArray))
+            return false;
+        ComplexArray c = (ComplexArray) o;
+
+        return Arrays.equals(re, c.re) && Arrays.equals(im, c.im);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(re) + Arrays.hashCode(im);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toComplexArray());
+    }
+}
@@ -0,0 +1,237 @@
+package example.item17;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ *  NotThreadSafe 를 스레드 세이프하게 만든 문자열 누적기.
+ *
+ *  StringBuffer 나 synchronized 로 감싸면 모든 쓰기 스레드가 락 하나를 두고 줄을 선다.
+ *  LongAdder 가 카운터를 여러 셀로 나누듯이, 여기서는 스레드마다 자기 전용 버퍼(Segment)를 두고 락 없이 이어 붙인다.
+ *  한 버퍼에는 그 버퍼의 주인 스레드만 쓰므로 경합이 없다.
+ *
+ *  읽기(snapshot)는 모든 버퍼를 합친 결과를 만든다.
+ *  - LongAdder.sum() 과 마찬가지로 읽는 도중에 추가되는 문자열은 포함될 수도, 안 될 수도 있다.
+ *  - Ordering.PER_THREAD(기본) : 스레드별로 모아서 이어 붙인다. 같은 스레드가 쓴 순서는 보장하지만 스레드 사이의 순서는 없다.
+ *  - Ordering.GLOBAL : append 마다 전역 순번을 붙이고 순번 순서로 합친다. 순번을 얻는 AtomicLong 하나만 공유하므로 PER_THREAD 보다는 느리다.
+ *
+ *  버퍼는 누적기마다 하나인 ThreadLocal 로 찾는다. 다 쓴 누적기는 close 한다. (try-with-resources)
+ *  스레드 풀의 스레드처럼 오래 사는 스레드는 ThreadLocal 엔트리를 계속 들고 있으므로, 닫지 않으면 버퍼의 문자 배열이 그만큼 남는다.
+ */
+final class ConcurrentTextAppender implements AutoCloseable {
+    enum Ordering { PER_THREAD, GLOBAL }
+
+    private final Ordering ordering;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Segment> localSegment = ThreadLocal.withInitial(this::register);
+    private volatile String closedText;  // close 한 뒤의 내용
+
+    ConcurrentTextAppender() {
+        this(Ordering.PER_THREAD);
+    }
+
+    ConcurrentTextAppender(Ordering ordering) {
+        this.ordering = Objects.requireNonNull(ordering);
+    }
+
+    /*
+     *  close 한 뒤에는 IllegalStateException 을 던진다.
+     */
+    ConcurrentTextAppender append(CharSequence text) {
+        if (closedText != null) {
+            localSegment.remove();
+            throw new IllegalStateException("이미 닫힌 누적기입니다.");
+        }
+        Segment segment = localSegment.get();
+        if (ordering == Ordering.GLOBAL) {
+            segment.append(text, sequence.getAndIncrement());
+        } else {
+            segment.append(text);
+        }
+        return this;
+    }
+
+    long length() {
+        String text = closedText;
+        if (text != null) {
+            return text.length();
+        }
+        long length = 0;
+        for (Segment segment : segments) {
+            length += segment.count;
+        }
+        return length;
+    }
+
+    String snapshot() {
+        String text = closedText;
+        if (text != null) {
+            return text;
+        }
+        return ordering == Ordering.GLOBAL ? globalSnapshot() : perThreadSnapshot();
+    }
+
+    /*
+     *  지금까지의 내용을 확정하고 버퍼를 비운다. 이후 snapshot 은 확정된 내용을 돌려준다. 여러 번 불러도 된다.
+     *  ThreadLocal.remove 는 부른 스레드의 엔트리만 지울 수 있다. 다른 스레드의 엔트리에는 빈 Segment 만 남고,
+     *  그 스레드가 다시 append 하거나 누적기가 GC 되어 ThreadLocal 이 수거되면 정리된다.
+     *  close 와 동시에 이어 붙인 문자열은 포함되지 않을 수 있다.
+     */
+    @Override
+    public synchronized void close() {
+        if (closedText != null) {
+            return;
+        }
+        closedText = snapshot();
+        for (Segment segment : segments) {
+            segment.release();
+        }
+        segments.clear();
+        localSegment.remove();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot();
+    }
+
+    private Segment register() {
+        Segment segment = new Segment(ordering == Ordering.GLOBAL);
+        segments.add(segment);
+        return segment;
+    }
+
+    private String perThreadSnapshot() {
+        StringBuilder builder = new StringBuilder(Math.toIntExact(length()));
+        for (Segment segment : segments) {
+            int count = segment.count;  // count 를 먼저 읽어야 chars 에 그만큼의 문자가 들어있다는 것이 보장된다.
+            builder.append(segment.chars, 0, count);
+        }
+        return builder.toString();
+    }
+
+    /*
+     *  각 버퍼 안의 기록은 이미 순번 순서이므로 버퍼들을 k-way 병합한다.
+     */
+    private String globalSnapshot() {
+        List<SegmentView> views = new ArrayList<>();
+        long length = 0;
+        for (Segment segment : segments) {
+            SegmentView view = new SegmentView(segment);
+            if (view.records > 0) {
+                views.add(view);
+                length += view.ends[view.records - 1];
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(Math.toIntExact(length));
+        PriorityQueue<SegmentView> queue = new PriorityQueue<>(Comparator.comparingLong(SegmentView::currentSequence));
+        queue.addAll(views);
+        while (!queue.isEmpty()) {
+            SegmentView view = queue.poll();
+            view.appendCurrentTo(builder);
+            if (view.advance()) {
+                queue.add(view);
+            }
+        }
+        return builder.toString();
+    }
+
+    /*
+     *  한 스레드만 쓰고 여러 스레드가 읽는 버퍼.
+     *  쓰는 쪽은 문자를 먼저 채운 뒤 volatile 필드(count, records)를 갱신해서 내용을 공개(publish)한다.
+     *  배열을 키울 때는 복사한 새 배열을 먼저 공개하고 count 를 갱신하므로, count 를 읽은 뒤 읽은 배열에는 항상 그 길이만큼의 문자가 있다.
+     */
+    private static final class Segment {
+        volatile char[] chars = new char[64];
+        volatile int count;
+
+        // Ordering.GLOBAL 에서만 쓰인다. i 번째 기록의 순번과 끝 위치
+        volatile long[] sequences;
+        volatile int[] ends;
+        volatile int records;
+
+        Segment(boolean sequenced) {
+            if (sequenced) {
+                sequences = new long[16];
+                ends = new int[16];
+            }
+        }
+
+        void append(CharSequence text) {
+            int length = text.length();
+            int count = this.count;
+            char[] chars = ensureCapacity(count + length);
+            if (text instanceof String) {
+                ((String) text).getChars(0, length, chars, count);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    chars[count + i] = text.charAt(i);
+                }
+            }
+            this.count = count + length;
+        }
+
+        void append(CharSequence text, long sequence) {
+            append(text);
+            int records = this.records;
+            if (records >= ends.length) {  // release 와 겹쳐도 예외가 나지 않도록 >= 로 검사한다.
+                sequences = Arrays.copyOf(sequences, Math.max(16, records * 2));
+                ends = Arrays.copyOf(ends, Math.max(16, records * 2));
+            }
+            sequences[records] = sequence;
+            ends[records] = count;
+            this.records = records + 1;
+        }
+
+        // close 할 때 부른다. 주인 스레드의 ThreadLocal 엔트리가 남아 있어도 빈 배열만 붙잡게 된다.
+        void release() {
+            records = 0;
+            count = 0;
+            chars = new char[0];
+            if (sequences != null) {
+                sequences = new long[0];
+                ends = new int[0];
+            }
+        }
+
+        private char[] ensureCapacity(int minCapacity) {
+            char[] chars = this.chars;
+            if (chars.length < minCapacity) {
+                chars = Arrays.copyOf(chars, Math.max(minCapacity, chars.length * 2));
+                this.chars = chars;
+            }
+            return chars;
+        }
+    }
+
+    private static final class SegmentView {
+        final int records;
+        final long[] sequences;
+        final int[] ends;
+        final char[] chars;
+        int index;
+
+        SegmentView(Segment segment) {
+            this.records = segment.records;
+            this.sequences = segment.sequences;
+            this.ends = segment.ends;
+            this.chars = segment.chars;
+        }
+
+        long currentSequence() {
+            return sequences[index];
+        }
+
+        void appendCurrentTo(StringBuilder builder) {
+            int start = index == 0 ? 0 : ends[index - 1];
+            builder.append(chars, start, ends[index] - start);
+        }
+
+        boolean advance() {
+            return ++index < records;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package example.item17;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/*
+ *  고속 푸리에 변환(FFT).
+ *
+ *  - 길이가 2의 거듭제곱이면 반복(iterative) radix-2 Cooley-Tukey 알고리즘으로, 그 외의 길이는 Bluestein 알고리즘으로 변환한다.
+ *    Bluestein 은 길이 n 의 DFT 를 길이 2의 거듭제곱인 합성곱(convolution)으로 바꿔서 계산한다.
+ *  - 실수부/허수부 double[] 를 제자리에서 변환하므로 원소마다 Complex 객체를 만들지 않는다.
+ *  - 회전 인자(twiddle factor) 표와 Bluestein 의 처프(chirp) 표는 캐시한다.
+ *    길이 N 의 회전 인자 표는 N 을 나누는 모든 길이에 쓸 수 있으므로(N/n 칸씩 건너뛴다) 지금까지 본 가장 긴 표 하나만 둔다.
+ *    길이가 MAX_CACHED_LENGTH 를 넘으면 캐시하지 않는다. (최대 8MB)
+ *    처프 표는 길이마다 다르므로 최근에 쓴 것부터 합계 MAX_CACHED_CHIRP_BYTES 까지만 남긴다. (LRU)
+ *    길이 n 의 처프 표 하나가 double 2n + 2m 개(m 은 2n - 1 이상인 2의 거듭제곱, 최대 약 4n)이므로 개수로 제한하면 메모리를 가늠할 수 없다.
+ *  - 길이가 PARALLEL_THRESHOLD 이상이면 각 단계의 나비(butterfly) 연산을 ForkJoinPool(공용 풀)에 나눠서 수행한다.
+ *
+ *  순방향 변환은 X[k] = Σ x[j] * e^(-2πijk/n), 역변환은 부호를 바꾸고 n 으로 나눈다.
+ */
+final class FFT {
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int PARALLEL_CHUNK = 1 << 12;
+
+    static final int MAX_CACHED_LENGTH = 1 << 20;
+    static final long MAX_CACHED_CHIRP_BYTES = 32L << 20;
+
+    private static volatile Twiddles twiddles;
+
+    // 접근 순서 LinkedHashMap 은 get 도 구조를 바꾸므로 CHIRPS 로 동기화한다. cachedChirpBytes 도 같은 락으로 보호한다.
+    private static final Map<Integer, Chirp> CHIRPS = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedChirpBytes;
+
+    private FFT() {}
+
+    static void transform(double[] re, double[] im) {
+        checkLength(re, im);
+        int n = re.length;
+        if (n <= 1) {
+            return;
+        }
+        if (isPowerOfTwo(n)) {
+            radix2(re, im, false);
+        } else {
+            bluestein(re, im);
+        }
+    }
+
+    static void inverse(double[] re, double[] im) {
+        checkLength(re, im);
+        int n = re.length;
+        if (n <= 1) {
+            return;
+        }
+        if (isPowerOfTwo(n)) {
+            radix2(re, im, true);
+        } else {
+            // IDFT(x) = conj(DFT(conj(x)))
+            negate(im);
+            bluestein(re, im);
+            negate(im);
+        }
+        scale(re, im, 1.0 / n);
+    }
+
+    static void transform(ComplexArray values) {
+        transform(values.real(), values.imaginary());
+    }
+
+    static void inverse(ComplexArray values) {
+        inverse(values.real(), values.imaginary());
+    }
+
+    // Complex 배열을 쓰는 편의 API. 입력은 그대로 두고 새 배열을 반환한다.
+    static Complex[] transform(Complex[] values) {
+        ComplexArray array = ComplexArray.of(values);
+        transform(array);
+        return array.toComplexArray();
+    }
+
+    static Complex[] inverse(Complex[] values) {
+        ComplexArray array = ComplexArray.of(values);
+        inverse(array);
+        return array.toComplexArray();
+    }
+
+    /*
+     *  정의대로 계산하는 O(n^2) DFT. 테스트와 벤치마크의 기준값으로 쓴다.
+     */
+    static ComplexArray naiveDft(ComplexArray values) {
+        int n = values.length();
+        ComplexArray result = new ComplexArray(n);
+        for (int k = 0; k < n; k++) {
+            double sumRe = 0, sumIm = 0;
+            for (int j = 0; j < n; j++) {
+                double angle = -2 * Math.PI * ((long) j * k % n) / n;
+                double cos = Math.cos(angle), sin = Math.sin(angle);
+                sumRe += values.realPart(j) * cos - values.imaginaryPart(j) * sin;
+                sumIm += values.realPart(j) * sin + values.imaginaryPart(j) * cos;
+            }
+            result.set(k, sumRe, sumIm);
+        }
+        return result;
+    }
+
+    private static void radix2(double[] re, double[] im, boolean inverse) {
+        int n = re.length;
+        bitReverse(re, im);
+        Twiddles twiddles = twiddles(n);
+        double sign = inverse ? -1 : 1;
+
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length >>> 1;
+            int step = twiddles.n / length;
+            if (n >= PARALLEL_THRESHOLD) {
+                int finalLength = length;
+                IntStream.range(0, (n / 2 + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK)
+                        .parallel()
+                        .forEach(chunk -> butterflies(re, im, twiddles, sign, finalLength, half, step,
+                                chunk * PARALLEL_CHUNK, Math.min(n / 2, (chunk + 1) * PARALLEL_CHUNK)));
+            } else {
+                butterflies(re, im, twiddles, sign, length, half, step, 0, n / 2);
+            }
+        }
+    }
+
+    /*
+     *  한 단계에는 n/2 개의 나비 연산이 있고 서로 독립적이다. [from, to) 번째 나비 연산만 수행한다.
+     */
+    private static void butterflies(double[] re, double[] im, Twiddles twiddles, double sign,
+                                    int length, int half, int step, int from, int to) {
+        double[] cos = twiddles.cos;
+        double[] sin = twiddles.sin;
+        for (int j = from; j < to; j++) {
+            int block = j / half;
+            int k = j - block * half;
+            int i = block * length + k;
+            int p = i + half;
+            double wr = cos[k * step];
+            double wi = sign * sin[k * step];
+            double tr = re[p] * wr - im[p] * wi;
+            double ti = re[p] * wi + im[p] * wr;
+            re[p] = re[i] - tr;
+            im[p] = im[i] - ti;
+            re[i] += tr;
+            im[i] += ti;
+        }
+    }
+
+    private static void bitReverse(double[] re, double[] im) {
+        int n = re.length;
+        int shift = Integer.numberOfLeadingZeros(n) + 1;
+        for (int i = 0; i < n; i++) {
+            int j = Integer.reverse(i) >>> shift;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+    }
+
+    /*
+     *  X[k] = w[k] * Σ (x[j] * w[j]) * conj(w[k - j]),  w[k] = e^(-πik²/n)
+     *  괄호 안의 합성곱을 길이 m(2n - 1 이상인 2의 거듭제곱)의 FFT 로 계산한다.
+     */
+    private static void bluestein(double[] re, double[] im) {
+        int n = re.length;
+        Chirp chirp = chirp(n);
+        int m = chirp.m;
+
+        double[] ar = new double[m];
+        double[] ai = new double[m];
+        for (int k = 0; k < n; k++) {
+            ar[k] = re[k] * chirp.cos[k] - im[k] * chirp.sin[k];
+            ai[k] = re[k] * chirp.sin[k] + im[k] * chirp.cos[k];
+        }
+        radix2(ar, ai, false);
+        for (int k = 0; k < m; k++) {
+            double r = ar[k] * chirp.filterRe[k] - ai[k] * chirp.filterIm[k];
+            double i = ar[k] * chirp.filterIm[k] + ai[k] * chirp.filterRe[k];
+            ar[k] = r;
+            ai[k] = i;
+        }
+        radix2(ar, ai, true);
+        double scale = 1.0 / m;
+        for (int k = 0; k < n; k++) {
+            double r = ar[k] * scale, i = ai[k] * scale;
+            re[k] = r * chirp.cos[k] - i * chirp.sin[k];
+            im[k] = r * chirp.sin[k] + i * chirp.cos[k];
+        }
+    }
+
+    // 더 긴 표가 이미 있으면 그것을 쓴다. 두 스레드가 동시에 바꾸면 짧은 쪽이 남을 수도 있지만, 다음에 다시 만들 뿐이다.
+    private static Twiddles twiddles(int n) {
+        Twiddles cached = twiddles;
+        if (cached != null && cached.n >= n) {
+            return cached;
+        }
+        Twiddles created = new Twiddles(n);
+        if (n <= MAX_CACHED_LENGTH) {
+            twiddles = created;
+        }
+        return created;
+    }
+
+    /*
+     *  표는 락 밖에서 계산한다. 같은 길이를 두 스레드가 함께 계산할 수는 있다.
+     *  표 하나가 MAX_CACHED_CHIRP_BYTES 보다 크면 캐시하지 않는다. 넣은 뒤 합계가 넘치면 오래전에 쓴 표부터 버린다.
+     */
+    private static Chirp chirp(int n) {
+        long bytes = Chirp.bytes(n);
+        if (bytes > MAX_CACHED_CHIRP_BYTES) {
+            return new Chirp(n);
+        }
+        synchronized (CHIRPS) {
+            Chirp cached = CHIRPS.get(n);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Chirp created = new Chirp(n);
+        synchronized (CHIRPS) {
+            Chirp prior = CHIRPS.putIfAbsent(n, created);
+            if (prior != null) {
+                return prior;
+            }
+            cachedChirpBytes += bytes;
+            Iterator<Map.Entry<Integer, Chirp>> eldest = CHIRPS.entrySet().iterator();
+            while (cachedChirpBytes > MAX_CACHED_CHIRP_BYTES) {
+                cachedChirpBytes -= Chirp.bytes(eldest.next().getKey());
+                eldest.remove();
+            }
+        }
+        return created;
+    }
+
+    static long cachedChirpBytes() {
+        synchronized (CHIRPS) {
+            return cachedChirpBytes;
+        }
+    }
+
+    private static void negate(double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -values[i];
+        }
+    }
+
+    private static void scale(double[] re, double[] im, double factor) {
+        for (int i = 0; i < re.length; i++) {
+            re[i] *= factor;
+            im[i] *= factor;
+        }
+    }
+
+    private static void checkLength(double[] re, double[] im) {
+        if (re.length != im.length) {
+            throw new IllegalArgumentException("실수부와 허수부의 길이가 다릅니다.");
+        }
+    }
+
+    private static boolean isPowerOfTwo(int n) {
+        return (n & (n - 1)) == 0;
+    }
+
+    // 길이 n 의 순방향 회전 인자 e^(-2πik/n), 0 <= k < n/2
+    private static final class Twiddles {
+        final int n;
+        final double[] cos;
+        final double[] sin;
+
+        Twiddles(int n) {
+            this.n = n;
+            cos = new double[n / 2];
+            sin = new double[n / 2];
+            for (int k = 0; k < n / 2; k++) {
+                double angle = -2 * Math.PI * k / n;
+                cos[k] = Math.cos(angle);
+                sin[k] = Math.sin(angle);
+            }
+        }
+    }
+
+    /*
+     *  길이 n 의 처프 w[k] 와, 합성곱에 쓰이는 conj(w) 를 미리 FFT 해둔 필터.
+     */
+    private static final class Chirp {
+        final int m;
+        final double[] cos;
+        final double[] sin;
+        final double[] filterRe;
+        final double[] filterIm;
+
+        Chirp(int n) {
+            m = convolutionLength(n);
+            cos = new double[n];
+            sin = new double[n];
+            for (int k = 0; k < n; k++) {
+                // k² 이 커지면 각도의 정밀도가 떨어지므로 주기(2n)로 나눈 나머지를 쓴다.
+                double angle = -Math.PI * ((long) k * k % (2L * n)) / n;
+                cos[k] = Math.cos(angle);
+                sin[k] = Math.sin(angle);
+            }
+            filterRe = new double[m];
+            filterIm = new double[m];
+            filterRe[0] = cos[0];
+            filterIm[0] = -sin[0];
+            for (int k = 1; k < n; k++) {
+                filterRe[k] = filterRe[m - k] = cos[k];
+                filterIm[k] = filterIm[m - k] = -sin[k];
+            }
+            radix2(filterRe, filterIm, false);
+        }
+
+        // 2n - 1 이상인 가장 작은 2의 거듭제곱
+        static int convolutionLength(int n) {
+            return Integer.highestOneBit(2 * n - 1) << 1;
+        }
+
+        // cos, sin, filterRe, filterIm 배열의 크기
+        static long bytes(int n) {
+            return (2L * n + 2L * convolutionLength(n)) * Double.BYTES;
+        }
+    }
+}
@@ -2,6 +2,15 @@ package example.item17;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /*
  *   아이템 17. 변경 가능성을 최소화하라.
  *
@@ -40,6 +49,154 @@ public class Item17 {
         NotThreadSafe notThreadSafe = new NotThreadSafe();
         new Thread(new MyRunnable(notThreadSafe)).start();
     }
+
+    @Test
+    public void concurrent_text_appender_test() throws InterruptedException {
+        for (ConcurrentTextAppender.Ordering ordering : ConcurrentTextAppender.Ordering.values()) {
+            ConcurrentTextAppender appender = new ConcurrentTextAppender(ordering);
+            int threads = 16;
+            int appends = 10_000;
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String prefix = (char) ('a' + t) + "";
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < appends; i++) {
+                        appender.append(prefix + i + ";");
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            start.countDown();
+            while (appender.length() == 0) {
+                Thread.onSpinWait();
+            }
+            String partial = appender.snapshot();  // 쓰는 도중에 읽어도 잘린 조각 없이 읽힌다.
+            assertTrue(partial.isEmpty() || partial.endsWith(";"));
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            // 잃어버린 문자열이 없고, 스레드별로는 쓴 순서가 유지된다.
+            int[] next = new int[threads];
+            for (String token : appender.snapshot().split(";")) {
+                int t = token.charAt(0) - 'a';
+                assertEquals(next[t]++, Integer.parseInt(token.substring(1)));
+            }
+            for (int t = 0; t < threads; t++) {
+                assertEquals(appends, next[t]);
+            }
+
+            // 닫으면 내용이 확정되고 더 이상 이어 붙일 수 없다.
+            String text = appender.snapshot();
+            appender.close();
+            assertEquals(text, appender.snapshot());
+            assertEquals(text.length(), appender.length());
+            assertThrows(IllegalStateException.class, () -> appender.append("x"));
+            appender.close();
+        }
+    }
+
+    @Test
+    public void complex_array_test() {
+        Random random = new Random(42);
+        int n = 1000;
+        Complex[] xs = new Complex[n];
+        Complex[] ys = new Complex[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = Complex.of(random.nextGaussian(), random.nextGaussian());
+            ys[i] = Complex.of(random.nextGaussian(), random.nextGaussian());
+        }
+        ComplexArray a = ComplexArray.of(xs);
+        ComplexArray b = ComplexArray.of(ys);
+
+        ComplexArray plus = a.plus(b);
+        ComplexArray minus = a.minus(b);
+        ComplexArray times = a.times(b);
+        ComplexArray dividedBy = a.dividedBy(b);
+        ComplexArray conjugate = a.conjugate();
+        for (int i = 0; i < n; i++) {
+            // Complex.equals 는 Double.compare 로 비교하므로 비트 단위까지 같아야 통과한다.
+            assertEquals(xs[i].plus(ys[i]), plus.get(i));
+            assertEquals(xs[i].minus(ys[i]), minus.get(i));
+            assertEquals(xs[i].times(ys[i]), times.get(i));
+            assertEquals(xs[i].dividedBy(ys[i]), dividedBy.get(i));
+            assertEquals(Complex.of(xs[i].realPart(), -xs[i].imaginaryPart()), conjugate.get(i));
+        }
+
+        ComplexArray.times(a, b, a);  // 제자리 연산
+        assertEquals(times, a);
+    }
+
+    @Test
+    public void fft_test() {
+        Random random = new Random(42);
+        for (int n : new int[]{1, 2, 8, 37, 100, 1000, 1024}) {
+            ComplexArray x = new ComplexArray(n);
+            for (int i = 0; i < n; i++) {
+                x.set(i, random.nextGaussian(), random.nextGaussian());
+            }
+            ComplexArray expected = FFT.naiveDft(x);
+            ComplexArray actual = x.copy();
+            FFT.transform(actual);
+            for (int i = 0; i < n; i++) {
+                assertEquals(expected.realPart(i), actual.realPart(i), 1e-9 * n);
+                assertEquals(expected.imaginaryPart(i), actual.imaginaryPart(i), 1e-9 * n);
+            }
+
+            FFT.inverse(actual);
+            for (int i = 0; i < n; i++) {
+                assertEquals(x.realPart(i), actual.realPart(i), 1e-12 * n);
+                assertEquals(x.imaginaryPart(i), actual.imaginaryPart(i), 1e-12 * n);
+            }
+        }
+
+        // 병렬로 나눠 계산하는 크기에서도 역변환하면 원래 값으로 돌아온다.
+        int n = FFT.PARALLEL_THRESHOLD * 4;
+        double[] re = new double[n];
+        double[] im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = random.nextGaussian();
+        }
+        double[] original = re.clone();
+        FFT.transform(re, im);
+        FFT.inverse(re, im);
+        for (int i = 0; i < n; i++) {
+            assertEquals(original[i], re[i], 1e-9);
+            assertEquals(0, im[i], 1e-9);
+        }
+
+        // 긴 회전 인자 표를 만든 뒤의 짧은 길이는 그 표를 건너뛰며 쓴다.
+        ComplexArray small = new ComplexArray(16);
+        for (int i = 0; i < 16; i++) {
+            small.set(i, random.nextGaussian(), random.nextGaussian());
+        }
+        ComplexArray expected = FFT.naiveDft(small);
+        FFT.transform(small);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(expected.realPart(i), small.realPart(i), 1e-9);
+            assertEquals(expected.imaginaryPart(i), small.imaginaryPart(i), 1e-9);
+        }
+
+        // 처프 표 캐시는 개수가 아니라 바이트 합계로 제한된다. (길이 100,001 안팎이면 표 하나가 약 5.8MB)
+        for (int length = 100_001; length < 100_021; length += 2) {
+            FFT.transform(new double[length], new double[length]);
+            assertTrue(FFT.cachedChirpBytes() <= FFT.MAX_CACHED_CHIRP_BYTES);
+        }
+
+        Complex[] impulse = {Complex.ONE, Complex.ZERO, Complex.ZERO};
+        for (Complex c : FFT.transform(impulse)) {
+            assertEquals(1, c.realPart(), 1e-12);
+            assertEquals(0, c.imaginaryPart(), 1e-12);
+        }
+    }
 }
 
 /*
@@ -0,0 +1,173 @@
+package example.item23;
+
+import java.util.Arrays;
+
+/*
+ *  도형을 객체가 아니라 종류별 기본 타입 배열(열, column)에 담는다.
+ *
+ *  Figure(태그 달린 클래스)나 Item23 의 클래스 계층구조는 도형 하나가 객체 하나다. 넓이의 합을 구하려면
+ *  배열에서 참조를 읽고, 흩어진 객체를 찾아가고(pointer chasing), area() 를 호출(가상 호출 또는 switch)해야 한다.
+ *  여기서는 원의 반지름, 사각형의 가로 / 세로를 각각 double[] 에 연속으로 담으므로, 합계는 배열을 순서대로 훑는 단순한 루프가 된다.
+ *  - 누산기를 네 개 두고 번갈아 더한다. 덧셈 하나가 앞의 덧셈 결과를 기다리지 않으므로 CPU 가 여러 덧셈을 동시에 처리할 수 있다.
+ *    (부동소수점 덧셈은 순서를 바꾸면 결과가 달라지므로 C2 가 스스로 이렇게 바꾸지 않는다. 결과는 한 줄로 더한 것과 마지막 몇 비트가 다를 수 있다.)
+ *  - 조건부 합계는 분기 대신 비트 마스크로 고른다. (keepAtLeast) 데이터에 따라 예측이 빗나가는 분기가 없다.
+ *  - 도형의 순서는 보존하지 않는다. 같은 종류끼리 모아 둔다.
+ */
+final class FigureBatch {
+    private double[] radii = new double[16];
+    private int circles;
+
+    private double[] lengths = new double[16];
+    private double[] widths = new double[16];
+    private int rectangles;
+
+    FigureBatch addCircle(double radius) {
+        if (circles == radii.length) {
+            radii = Arrays.copyOf(radii, circles * 2);
+        }
+        radii[circles++] = radius;
+        return this;
+    }
+
+    FigureBatch addRectangle(double length, double width) {
+        if (rectangles == lengths.length) {
+            lengths = Arrays.copyOf(lengths, rectangles * 2);
+            widths = Arrays.copyOf(widths, rectangles * 2);
+        }
+        lengths[rectangles] = length;
+        widths[rectangles] = width;
+        rectangles++;
+        return this;
+    }
+
+    FigureBatch add(Figure figure) {
+        switch (figure.shape) {
+            case RECTANGLE:
+                return addRectangle(figure.length, figure.width);
+            case CIRCLE:
+                return addCircle(figure.radius);
+            default:
+                throw new AssertionError(figure.shape);
+        }
+    }
+
+    static FigureBatch of(Figure... figures) {
+        FigureBatch batch = new FigureBatch();
+        for (Figure figure : figures) {
+            batch.add(figure);
+        }
+        return batch;
+    }
+
+    int size() {
+        return circles + rectangles;
+    }
+
+    int size(Figure.Shape shape) {
+        return shape == Figure.Shape.CIRCLE ? circles : rectangles;
+    }
+
+    double totalArea() {
+        return totalArea(Figure.Shape.CIRCLE) + totalArea(Figure.Shape.RECTANGLE);
+    }
+
+    double totalArea(Figure.Shape shape) {
+        switch (shape) {
+            case RECTANGLE:
+                return rectangleArea();
+            case CIRCLE:
+                return Math.PI * sumOfSquares(radii, circles);
+            default:
+                throw new AssertionError(shape);
+        }
+    }
+
+    /*
+     *  넓이가 minArea 이상인 도형들의 넓이 합
+     */
+    double totalAreaAtLeast(double minArea) {
+        // πr² >= minArea 인 것은 r² >= minArea / π 인 것과 같으므로 원마다 π 를 곱하지 않는다.
+        return Math.PI * sumOfSquares(radii, circles, minArea / Math.PI) + rectangleArea(minArea);
+    }
+
+    private static double sumOfSquares(double[] values, int count) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            s0 += values[i] * values[i];
+            s1 += values[i + 1] * values[i + 1];
+            s2 += values[i + 2] * values[i + 2];
+            s3 += values[i + 3] * values[i + 3];
+        }
+        for (; i < count; i++) {
+            s0 += values[i] * values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double sumOfSquares(double[] values, int count, double min) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            double a = values[i] * values[i];
+            double b = values[i + 1] * values[i + 1];
+            double c = values[i + 2] * values[i + 2];
+            double d = values[i + 3] * values[i + 3];
+            s0 += keepAtLeast(a, min);
+            s1 += keepAtLeast(b, min);
+            s2 += keepAtLeast(c, min);
+            s3 += keepAtLeast(d, min);
+        }
+        for (; i < count; i++) {
+            double a = values[i] * values[i];
+            s0 += keepAtLeast(a, min);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /*
+     *  value >= min 이면 value, 아니면 0. 삼항 연산자로 쓰면 C2 가 조건 분기로 컴파일해서, 조건이 무작위일 때 예측이 절반쯤 빗나간다.
+     *  value - min 의 부호 비트로 마스크를 만들어 분기 없이 고른다. (둘 다 유한한 양수인 넓이에만 쓴다.)
+     */
+    private static double keepAtLeast(double value, double min) {
+        long mask = ~(Double.doubleToRawLongBits(value - min) >> 63);
+        return Double.longBitsToDouble(Double.doubleToRawLongBits(value) & mask);
+    }
+
+    private double rectangleArea() {
+        double[] lengths = this.lengths, widths = this.widths;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < rectangles; i += 4) {
+            s0 += lengths[i] * widths[i];
+            s1 += lengths[i + 1] * widths[i + 1];
+            s2 += lengths[i + 2] * widths[i + 2];
+            s3 += lengths[i + 3] * widths[i + 3];
+        }
+        for (; i < rectangles; i++) {
+            s0 += lengths[i] * widths[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private double rectangleArea(double min) {
+        double[] lengths = this.lengths, widths = this.widths;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < rectangles; i += 4) {
+            double a = lengths[i] * widths[i];
+            double b = lengths[i + 1] * widths[i + 1];
+            double c = lengths[i + 2] * widths[i + 2];
+            double d = lengths[i + 3] * widths[i + 3];
+            s0 += keepAtLeast(a, min);
+            s1 += keepAtLeast(b, min);
+            s2 += keepAtLeast(c, min);
+            s3 += keepAtLeast(d, min);
+        }
+        for (; i < rectangles; i++) {
+            double a = lengths[i] * widths[i];
+            s0 += keepAtLeast(a, min);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
@@ -3,6 +3,8 @@ package example.item23;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 /*
  *  아이템 23. 태그 달린 클래스보다는 클래스 계층구조를 활용하라.
  *
@@ -22,11 +24,67 @@ public class Item23 {
         System.out.println(rect.area()); // 150.0
     }
 
-    abstract class Figure {
+    @Test
+    public void figureBatch() {
+        example.item23.Figure[] figures = {
+                new example.item23.Figure(5), new example.item23.Figure(10, 15), new example.item23.Figure(1),
+                new example.item23.Figure(2, 3), new example.item23.Figure(0.5)
+        };
+        FigureBatch batch = FigureBatch.of(figures);
+
+        Assertions.assertEquals(5, batch.size());
+        Assertions.assertEquals(3, batch.size(example.item23.Figure.Shape.CIRCLE));
+        Assertions.assertEquals(156.0, batch.totalArea(example.item23.Figure.Shape.RECTANGLE));
+        Assertions.assertEquals(Math.PI * 26.25, batch.totalArea(example.item23.Figure.Shape.CIRCLE), 1e-9);
+        Assertions.assertEquals(156.0 + Math.PI * 26.25, batch.totalArea(), 1e-9);
+
+        // 넓이 3.14.. 인 원(반지름 1)은 경계값과 같으므로 포함된다.
+        Assertions.assertEquals(Math.PI * 26 + 156.0, batch.totalAreaAtLeast(Math.PI), 1e-9);
+        Assertions.assertEquals(150.0 + Math.PI * 25, batch.totalAreaAtLeast(10), 1e-9);
+        Assertions.assertEquals(0.0, batch.totalAreaAtLeast(1000));
+        Assertions.assertEquals(0.0, new FigureBatch().totalArea());
+    }
+
+    @Test
+    public void figureBatchMatchesObjects() {
+        Random random = new Random(42);
+        FigureBatch batch = new FigureBatch();
+        double tagged = 0, hierarchy = 0, tenOrMore = 0;
+        for (int i = 0; i < 10_003; i++) {  // 4 의 배수가 아닌 개수로 남는 원소 처리도 확인한다.
+            double a = random.nextDouble() * 10, b = random.nextDouble() * 10;
+            example.item23.Figure figure;
+            Figure shape;
+            switch (i % 3) {
+                case 0:
+                    figure = new example.item23.Figure(a);
+                    shape = new Circle(a);
+                    break;
+                case 1:
+                    figure = new example.item23.Figure(a, b);
+                    shape = new RECTANGLE(a, b);
+                    break;
+                default:
+                    figure = new example.item23.Figure(a, a);
+                    shape = new Square(a);
+            }
+            batch.add(figure);
+            tagged += figure.area();
+            hierarchy += shape.area();
+            tenOrMore += figure.area() >= 10 ? figure.area() : 0;
+        }
+
+        Assertions.assertEquals(10_003, batch.size());
+        Assertions.assertEquals(tagged, hierarchy, tagged * 1e-12);
+        Assertions.assertEquals(tagged, batch.totalArea(), tagged * 1e-12);  // 더하는 순서가 달라 마지막 몇 비트는 다를 수 있다.
+        Assertions.assertEquals(tenOrMore, batch.totalAreaAtLeast(10), tenOrMore * 1e-12);
+    }
+
+    // 바깥 Item23 인스턴스를 쓰지 않으므로 static 으로 둔다. static 이 아니면 도형마다 Item23 을 붙잡고 있게 된다. (아이템 24)
+    abstract static class Figure {
         abstract double area();
     }
 
-    class RECTANGLE extends Figure {
+    static class RECTANGLE extends Figure {
         final double length;
         final double width;
 
@@ -41,7 +99,14 @@ public class Item23 {
         }
     }
 
-    class Circle extends Figure {
+    // 정사각형은 사각형의 일종이다. 계층구조에서는 이 관계를 자연스럽게 표현할 수 있다.
+    static class Square extends RECTANGLE {
+        Square(double side) {
+            super(side, side);
+        }
+    }
+
+    static class Circle extends Figure {
         final double radius;
 
         Circle(double radius) {
@@ -50,7 +115,7 @@ public class Item23 {
 
         @Override
         double area() {
-            return Math.PI * Math.pow(radius, 2);
+            return Math.PI * (radius * radius);
         }
     }
 }
@@ -0,0 +1,175 @@
+package example.item24;
+
+import example.item06.IntIntLruMap;
+import example.item06.IntIntMap;
+import example.item44.Item44;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ *  여러 아이템의 예제 클래스가 인스턴스 하나당 힙을 얼마나 쓰는지 표로 보여주고, 숨은 참조를 검사한다.
+ *
+ *  gradle footprint  (에이전트를 붙이고 java.lang, java.util 을 열어서 실행한다. gradle check 에도 포함된다.)
+ *
+ *  검사 (하나라도 어기면 종료 코드 1 로 끝나서 빌드가 실패한다.)
+ *  - 바깥 클래스의 인스턴스를 붙잡아도 된다고 표시하지 않은 객체가 바깥 인스턴스에 도달할 수 있으면 실패한다.
+ *    static 이어야 할 멤버 클래스에서 static 을 빠뜨리면 여기서 걸린다. (아이템 24)
+ *  - 붙잡으면 안 되는 객체(다 쓴 참조 등)에 도달할 수 있으면 실패한다. (아이템 7)
+ *
+ *  예제 클래스들은 각자의 패키지에 package-private 으로 있으므로 리플렉션으로 만든다.
+ */
+final class FootprintReport {
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        List<Sample> samples = samples();
+        System.out.printf("%-42s %10s %10s %8s  %s%n", "sample", "shallow", "retained", "objects", "enclosing");
+        List<String> failures = new ArrayList<>();
+        for (Sample sample : samples) {
+            Object enclosing = ObjectGraph.retainedEnclosingInstance(sample.object);
+            System.out.printf("%-42s %10d %10d %8d  %s%n", sample.name, ObjectSizeAgent.shallowSize(sample.object),
+                    ObjectSizeAgent.retainedSize(sample.object), ObjectGraph.reachable(sample.object).size(),
+                    enclosing == null ? "-" : "retains " + enclosing.getClass().getName());
+            failures.addAll(sample.check(enclosing));
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    static List<Sample> samples() throws ReflectiveOperationException {
+        List<Sample> samples = new ArrayList<>();
+
+        // 아이템 6. 박싱된 기본 타입
+        samples.add(new Sample("Long", Long.valueOf(1_000_000L)));
+        samples.add(new Sample("long[1000]", new long[1000]));
+        Long[] boxed = new Long[1000];
+        Arrays.setAll(boxed, i -> 1_000L + i);  // 캐시(-128 ~ 127) 밖의 값이라 원소마다 Long 이 하나씩 만들어진다.
+        samples.add(new Sample("Long[1000]", boxed));
+        Map<Integer, Integer> hashMap = new HashMap<>();
+        IntIntMap intMap = new IntIntMap();
+        Map<Integer, Integer> sizedMap = new Item44.SizedMap<>();
+        IntIntLruMap lruMap = new IntIntLruMap(100, false);
+        for (int i = 0; i < 1000; i++) {
+            hashMap.put(1_000 + i, i);
+            intMap.put(1_000 + i, i);
+            sizedMap.put(1_000 + i, i);
+            lruMap.put(1_000 + i, i);
+        }
+        samples.add(new Sample("HashMap<Integer, Integer> (1000)", hashMap));
+        samples.add(new Sample("IntIntMap (1000)", intMap));
+        samples.add(new Sample("Item44.SizedMap<Integer, Integer> (100)", sizedMap));
+        samples.add(new Sample("IntIntLruMap (100)", lruMap));
+
+        // 아이템 7. 다 쓴 참조 해제
+        Object stack = create("example.item07.Item7$Stack", new Class<?>[0]);
+        Object[] popped = new Object[100];
+        for (int i = 0; i < popped.length; i++) {
+            call(stack, "push", new Class<?>[]{Object.class}, new Object[]{"element " + i});
+        }
+        for (int i = popped.length - 1; i >= 0; i--) {
+            popped[i] = call(stack, "pop", new Class<?>[0]);
+        }
+        samples.add(new Sample("Item7.Stack (100 pushed, 100 popped)", stack).mustNotRetain(popped));
+
+        // 아이템 15, 17. 값 객체
+        samples.add(new Sample("item15.Item (10000, 10000)",
+                create("example.item15.Item", new Class<?>[]{Integer.class, Integer.class}, 10000, 10000)));
+        samples.add(new Sample("item17.Complex",
+                create("example.item17.Complex", new Class<?>[]{double.class, double.class}, 1.0, 2.0)));
+
+        // 아이템 23. 태그 달린 클래스와 계층구조, 열 저장
+        samples.add(new Sample("item23.Figure (tagged circle)",
+                create("example.item23.Figure", new Class<?>[]{double.class}, 5.0)));
+        samples.add(new Sample("Item23.Circle",
+                create("example.item23.Item23$Circle", new Class<?>[]{double.class}, 5.0)));
+        samples.add(new Sample("Item23.RECTANGLE",
+                create("example.item23.Item23$RECTANGLE", new Class<?>[]{double.class, double.class}, 10.0, 15.0)));
+        Object batch = create("example.item23.FigureBatch", new Class<?>[0]);
+        Object[] circles = new Object[1000];
+        for (int i = 0; i < circles.length; i++) {
+            call(batch, "addCircle", new Class<?>[]{double.class}, (double) i);
+            circles[i] = create("example.item23.Item23$Circle", new Class<?>[]{double.class}, (double) i);
+        }
+        samples.add(new Sample("Item23.Circle[1000]", circles));
+        samples.add(new Sample("FigureBatch (1000 circles)", batch));
+
+        // 아이템 24. 멤버 클래스
+        Outer outer = new Outer();
+        samples.add(new Sample("Outer.InnerOne (non-static)", outer.new InnerOne()).mayRetainEnclosing());
+        samples.add(new Sample("Outer.InnerTwo (static)", new Outer.InnerTwo()));
+
+        // 아이템 27. MyArray 와 그 뷰. 뷰는 원본을 보여주는 것이 목적이므로 원본을 붙잡는다.
+        Object myArray = create("example.item27.Item27$MyArray", new Class<?>[]{int.class}, 10);
+        for (int i = 0; i < 10; i++) {
+            call(myArray, "add", new Class<?>[]{Object.class}, new Object[]{"e" + i});
+        }
+        samples.add(new Sample("Item27.MyArray (10 strings)", myArray));
+        samples.add(new Sample("Item27.MyArray.asList() view",
+                call(myArray, "asList", new Class<?>[0])).mayRetainEnclosing());
+        return samples;
+    }
+
+    private static Object create(String className, Class<?>[] types, Object... args) throws ReflectiveOperationException {
+        Constructor<?> constructor = Class.forName(className).getDeclaredConstructor(types);
+        constructor.setAccessible(true);
+        return constructor.newInstance(args);
+    }
+
+    private static Object call(Object target, String name, Class<?>[] types, Object... args)
+            throws ReflectiveOperationException {
+        Method method = target.getClass().getDeclaredMethod(name, types);
+        method.setAccessible(true);
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(name + " 호출 실패", e.getCause());
+        }
+    }
+
+    static final class Sample {
+        final String name;
+        final Object object;
+        private boolean mayRetainEnclosing;
+        private Object[] mustNotRetain = {};
+
+        Sample(String name, Object object) {
+            this.name = name;
+            this.object = object;
+        }
+
+        Sample mayRetainEnclosing() {
+            this.mayRetainEnclosing = true;
+            return this;
+        }
+
+        Sample mustNotRetain(Object... objects) {
+            this.mustNotRetain = objects;
+            return this;
+        }
+
+        List<String> check(Object retainedEnclosing) {
+            List<String> failures = new ArrayList<>();
+            if (retainedEnclosing != null && !mayRetainEnclosing) {
+                failures.add(name + ": 바깥 인스턴스(" + retainedEnclosing.getClass().getName() + ")를 붙잡고 있습니다. static 멤버 클래스로 만드세요.");
+            }
+            if (mustNotRetain.length > 0) {
+                Set<Object> reachable = ObjectGraph.reachable(object);
+                for (Object o : mustNotRetain) {
+                    if (reachable.contains(o)) {
+                        failures.add(name + ": 다 쓴 참조를 붙잡고 있습니다: " + o);
+                    }
+                }
+            }
+            return failures;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package example.item24;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 /*
  *  아이템 24. 멤버 클래스는 되도록 static으로 만들라.
  *
@@ -27,6 +30,36 @@ public class Item24 {
         inner2.say();  // I'm InnerTwo..
         outer.say();   // I'm Outer..
     }
+
+    /*
+     *  크기는 에이전트가 있어야 잴 수 있으므로(gradle footprint) 여기서는 무엇을 붙잡고 있는지만 확인한다.
+     */
+    @Test
+    public void retained_enclosing_instance_test() {
+        Outer outer = new Outer();
+
+        Assertions.assertSame(outer, ObjectGraph.retainedEnclosingInstance(outer.new InnerOne()));  // 숨은 this$0 필드
+        Assertions.assertNull(ObjectGraph.retainedEnclosingInstance(new Outer.InnerTwo()));
+        Assertions.assertNull(ObjectGraph.retainedEnclosingInstance(outer));  // 바깥 클래스가 없다.
+
+        Assertions.assertTrue(ObjectGraph.reachable(outer.new InnerOne()).contains(outer.message));
+        Assertions.assertFalse(ObjectGraph.reachable(outer).contains(Outer.class));  // Class 객체는 따라가지 않는다.
+    }
+
+    @Test
+    public void object_graph_test() {
+        String shared = "shared";
+        Object[] array = {shared, List.of(shared), null, new int[4]};
+
+        Assertions.assertEquals(1, ObjectGraph.reachable(new int[4]).size());
+        Assertions.assertTrue(ObjectGraph.retains(array, array[3]));
+        Assertions.assertTrue(ObjectGraph.retains(array, shared));
+        Assertions.assertFalse(ObjectGraph.retains(array, new int[4]));
+        Assertions.assertFalse(ObjectGraph.retains(shared, array));
+        if (!ObjectSizeAgent.isInstalled()) {
+            Assertions.assertThrows(IllegalStateException.class, () -> ObjectSizeAgent.shallowSize(array));
+        }
+    }
 }
 
 class Outer {
@@ -0,0 +1,144 @@
+package example.item24;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/*
+ *  어떤 객체에서 필드와 배열 원소를 따라 도달할 수 있는 객체들을 모은다. (리플렉션)
+ *
+ *  - Class 객체는 따라가지 않는다. 클래스 메타데이터는 인스턴스가 붙잡고 있는 것이 아니다.
+ *  - static 필드가 바로 가리키는 객체(Complex.ZERO, MyArray 의 EMPTY_ELEMENTDATA, enum 상수 등)는 모든 인스턴스가 함께 쓰는 것이므로 세지 않는다.
+ *  - java.base 의 클래스는 --add-opens 로 열어 주지 않으면 필드를 읽을 수 없다. 그런 객체는 그 객체 자신만 세고 더 따라가지 않는다.
+ *    (gradle footprint 는 java.lang 과 java.util 을 열어서 실행한다.)
+ *  - 다른 경로로도 참조되는 객체까지 모두 포함하므로, 여기서 얻은 크기는 엄밀한 retained size(이 객체가 사라지면 함께 회수될 크기)의 상한이다.
+ *    이 프로젝트의 값 객체들은 대부분 자기 필드만 붙잡고 있어서 둘이 같다.
+ */
+final class ObjectGraph {
+    private static final Map<Class<?>, List<Field>> FIELDS = new HashMap<>();
+    private static final Map<Class<?>, List<Object>> SHARED = new HashMap<>();
+
+    private ObjectGraph() {}
+
+    /*
+     *  root 를 포함해 도달할 수 있는 객체들. 반환하는 집합은 동일성(==)으로 비교한다.
+     */
+    static Set<Object> reachable(Object root) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Class<?>> seenClasses = new HashSet<>();
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Object object = stack.pop();
+            if (object instanceof Class || visited.contains(object)) {
+                continue;
+            }
+            Class<?> type = object.getClass();
+            if (seenClasses.add(type)) {
+                shared.addAll(sharedBy(type));
+            }
+            if (object != root && shared.contains(object)) {
+                continue;
+            }
+            visited.add(object);
+            if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0, n = Array.getLength(object); i < n; i++) {
+                        pushIfNotNull(stack, Array.get(object, i));
+                    }
+                }
+                continue;
+            }
+            for (Field field : instanceFields(type)) {
+                try {
+                    pushIfNotNull(stack, field.get(object));
+                } catch (IllegalAccessException e) {
+                    throw new AssertionError(e);  // instanceFields 는 열 수 있는 필드만 돌려준다.
+                }
+            }
+        }
+        return visited;
+    }
+
+    /*
+     *  root 에서 target 에 도달할 수 있는지
+     */
+    static boolean retains(Object root, Object target) {
+        return reachable(root).contains(target);
+    }
+
+    /*
+     *  root 가 자신을 감싸는 클래스(바깥 클래스)의 인스턴스에 도달할 수 있다면 그 인스턴스를, 아니면 null 을 반환한다.
+     *  static 이 아닌 멤버 클래스는 컴파일러가 만든 숨은 필드(this$0)로 바깥 인스턴스를 붙잡는다. (아이템 24)
+     */
+    static Object retainedEnclosingInstance(Object root) {
+        Set<Class<?>> enclosing = new HashSet<>();
+        for (Class<?> c = root.getClass().getEnclosingClass(); c != null; c = c.getEnclosingClass()) {
+            enclosing.add(c);
+        }
+        if (enclosing.isEmpty()) {
+            return null;
+        }
+        for (Object object : reachable(root)) {
+            for (Class<?> c = object.getClass(); c != null; c = c.getSuperclass()) {
+                if (enclosing.contains(c)) {
+                    return object;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void pushIfNotNull(Deque<Object> stack, Object value) {
+        if (value != null) {
+            stack.push(value);
+        }
+    }
+
+    private static synchronized List<Field> instanceFields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive() && open(field)) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static synchronized List<Object> sharedBy(Class<?> type) {
+        return SHARED.computeIfAbsent(type, t -> {
+            List<Object> values = new ArrayList<>();
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive() && open(field)) {
+                        try {
+                            Object value = field.get(null);
+                            if (value != null) {
+                                values.add(value);
+                            }
+                        } catch (IllegalAccessException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                }
+            }
+            return values;
+        });
+    }
+
+    private static boolean open(Field field) {
+        try {
+            field.setAccessible(true);
+            return true;
+        } catch (InaccessibleObjectException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package example.item24;
+
+import java.lang.instrument.Instrumentation;
+
+/*
+ *  객체가 힙에서 실제로 차지하는 크기를 JVM 에게 묻는 자바 에이전트.
+ *
+ *  필드 개수로 어림한 크기는 객체 헤더, 압축 포인터(compressed oops) 여부, 8 바이트 정렬에 따라 틀리기 쉽다.
+ *  Instrumentation.getObjectSize 는 지금 실행 중인 JVM 의 실제 배치를 기준으로 한 객체의 얕은 크기(shallow size)를 알려준다.
+ *  - java -javaagent:build/libs/object-size-agent.jar ... 로 실행해야 쓸 수 있다. (gradle footprint 가 에이전트 jar 를 만들어 붙여 준다.)
+ *  - 얕은 크기 : 객체 자신(헤더 + 필드, 배열이면 헤더 + 원소). 필드가 가리키는 객체는 포함하지 않는다.
+ *  - 유지 크기(retainedSize) : ObjectGraph 로 도달할 수 있는 객체들의 얕은 크기 합.
+ */
+public final class ObjectSizeAgent {
+    private static volatile Instrumentation instrumentation;
+
+    private ObjectSizeAgent() {}
+
+    public static void premain(String args, Instrumentation inst) {
+        instrumentation = inst;
+    }
+
+    // 이미 실행 중인 JVM 에 붙일 때 (Attach API)
+    public static void agentmain(String args, Instrumentation inst) {
+        instrumentation = inst;
+    }
+
+    public static boolean isInstalled() {
+        return instrumentation != null;
+    }
+
+    public static long shallowSize(Object object) {
+        Instrumentation inst = instrumentation;
+        if (inst == null) {
+            throw new IllegalStateException("에이전트가 설치되지 않았습니다. -javaagent 로 실행하세요. (gradle footprint)");
+        }
+        return inst.getObjectSize(object);
+    }
+
+    public static long retainedSize(Object root) {
+        long size = 0;
+        for (Object object : ObjectGraph.reachable(root)) {
+            size += shallowSize(object);
+        }
+        return size;
+    }
+}
@@ -1,6 +1,11 @@
 package example.item27;
 
-import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
  *  아이템 27. 비검사 경고를 제거하라.
@@ -10,19 +15,51 @@ import java.util.Arrays;
  */
 public class Item27 {
 
+    /*
+     *  처음부터 new Object[100000] 를 만들면 작은 배열을 수천 개 만들 때 메모리 대부분이 낭비되고, 100000 개를 넘으면 예외가 난다.
+     *  ArrayList 처럼 빈 배열로 시작해서 첫 add 때 할당하고, 가득 차면 1.5배씩 늘린다. (분할 상환 O(1))
+     */
     static class MyArray<E> {
+        private static final Object[] EMPTY_ELEMENTDATA = {};
+        private static final int DEFAULT_CAPACITY = 10;
+
         Object[] elementData;
         int size;
 
         public MyArray() {
-            elementData = new Object[100000];
+            elementData = EMPTY_ELEMENTDATA;
+            size = 0;
+        }
+
+        // 원소 개수를 미리 알고 있다면 용량을 지정해서 배열을 늘리는 비용을 없앤다.
+        public MyArray(int initialCapacity) {
+            if (initialCapacity < 0) {
+                throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+            }
+            elementData = initialCapacity == 0 ? EMPTY_ELEMENTDATA : new Object[initialCapacity];
             size = 0;
         }
 
         public void add(E e) {
+            if (size == elementData.length) {
+                grow();
+            }
             elementData[size++] = e;
         }
 
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+
+            @SuppressWarnings("unchecked")
+            E element = (E) elementData[index];
+
+            return element;
+        }
+
+        public int size() {
+            return size;
+        }
+
         public E lastElement() {
             @SuppressWarnings("unchecked")
             E element = (E) elementData[size - 1];
@@ -30,6 +67,35 @@ public class Item27 {
             return element;
         }
 
+        // 남는 용량을 잘라내서 다 채운 배열이 차지하는 메모리를 줄인다.
+        public void trimToSize() {
+            if (size < elementData.length) {
+                elementData = size == 0 ? EMPTY_ELEMENTDATA : Arrays.copyOf(elementData, size);
+            }
+        }
+
+        /*
+         *  toArray 로 복사하지 않고 원소를 하나씩 넘겨준다.
+         */
+        public void forEach(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            Object[] es = elementData;
+            int n = size;
+            for (int i = 0; i < n; i++) {
+                @SuppressWarnings("unchecked")
+                E element = (E) es[i];
+                action.accept(element);
+            }
+        }
+
+        /*
+         *  복사 없이 내부 배열을 그대로 보여주는 읽기 전용 List 뷰.
+         *  뷰를 만든 뒤에 add 한 원소도 보인다. 수정하려고 하면 UnsupportedOperationException 을 던진다.
+         */
+        public List<E> asList() {
+            return new ReadOnlyView();
+        }
+
         public <T> T[] toArray(T[] a) {
             if (a.length < size) {
                 @SuppressWarnings("unchecked")
@@ -44,6 +110,56 @@ public class Item27 {
 
             return a;
         }
+
+        private void grow() {
+            int oldCapacity = elementData.length;
+            int newCapacity = oldCapacity == 0 ? DEFAULT_CAPACITY : oldCapacity + (oldCapacity >> 1);
+            if (newCapacity - size <= 0 || newCapacity < 0) {
+                newCapacity = size + 1;  // 1.5배가 int 범위를 넘는 경우
+            }
+            elementData = Arrays.copyOf(elementData, newCapacity);
+        }
+
+        private class ReadOnlyView extends AbstractList<E> implements RandomAccess {
+            @Override
+            public E get(int index) {
+                return MyArray.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void forEach(Consumer<? super E> action) {
+                MyArray.this.forEach(action);
+            }
+        }
+    }
+
+    @Test
+    public void my_array_test() {
+        MyArray<String> array = new MyArray<>();
+        assertEquals(0, array.elementData.length);  // 원소를 넣기 전에는 배열을 할당하지 않는다.
+
+        for (int i = 0; i < 200_000; i++) {  // 예전 고정 크기(100000)를 넘어도 예외가 나지 않는다.
+            array.add("e" + i);
+        }
+        assertEquals(200_000, array.size());
+        assertEquals("e199999", array.lastElement());
+
+        array.trimToSize();
+        assertEquals(array.size(), array.elementData.length);
+
+        List<String> view = array.asList();
+        assertEquals("e10", view.get(10));
+        assertThrows(UnsupportedOperationException.class, () -> view.add("x"));
+
+        List<String> visited = new ArrayList<>();
+        array.forEach(visited::add);
+        assertEquals(view, visited);
+        assertArrayEquals(visited.toArray(new String[0]), array.toArray(new String[0]));
     }
 
 }
@@ -1,6 +1,14 @@
 package example.item30;
 
+import org.junit.jupiter.api.Test;
+
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
  *  아이템 30. 이왕이면 제네릭 메서드로 만들라.
@@ -16,6 +24,7 @@ public class Item30 {
      */
     public static <E> Set<E> union(Set<E> s1, Set<E> s2) {
         Set<E> result = new HashSet<>();
+        result.addAll(s1);
         result.addAll(s2);
         return result;
     }
@@ -39,4 +48,78 @@ public class Item30 {
 
         return result;
     }
+
+    /*
+     *  숫자 배열이라면 박싱하지 않는 Reductions 를 쓴다.
+     */
+    @Test
+    public void primitive_reduction_test() {
+        Random random = new Random(42);
+        int[] ints = random.ints(10_000).toArray();
+        long[] longs = random.longs(10_000).toArray();
+        double[] doubles = random.doubles(10_000, -1, 1).toArray();
+
+        assertEquals(IntStream.of(ints).max().getAsInt(), Reductions.max(ints));
+        assertEquals(IntStream.of(ints).min().getAsInt(), Reductions.min(ints));
+        assertEquals(LongStream.of(longs).max().getAsLong(), Reductions.max(longs));
+        assertEquals(LongStream.of(longs).min().getAsLong(), Reductions.min(longs));
+        assertEquals(DoubleStream.of(doubles).max().getAsDouble(), Reductions.max(doubles));
+        assertEquals(DoubleStream.of(doubles).min().getAsDouble(), Reductions.min(doubles));
+        assertEquals(max(IntStream.of(ints).boxed().collect(Collectors.toList())), Reductions.max(IntStream.of(ints)));
+        assertEquals(Double.NaN, Reductions.max(new double[]{1, Double.NaN, 2}));
+        assertEquals(0.0, Reductions.max(new double[]{-0.0, 0.0}));
+
+        int[] sortedInts = IntStream.of(ints).boxed().sorted(Comparator.reverseOrder()).mapToInt(i -> i).toArray();
+        assertArrayEquals(Arrays.copyOf(sortedInts, 10), Reductions.topK(ints, 10));
+        assertArrayEquals(sortedInts, Reductions.topK(ints, ints.length + 1));
+        assertArrayEquals(new int[0], Reductions.topK(ints, 0));
+        assertArrayEquals(new long[]{9, 7, 7}, Reductions.topK(new long[]{7, 1, 9, 7, 3}, 3));
+        assertArrayEquals(new double[]{Double.NaN, 2.0, 0.0}, Reductions.topK(new double[]{-0.0, 2.0, Double.NaN, 0.0}, 3));
+        assertArrayEquals(new int[]{5, 4}, Reductions.topK(IntStream.rangeClosed(1, 5), 2));
+        // 스트림은 배열로 모으지 않는다. k 가 아주 커도, 병렬 스트림이어도 결과는 같다.
+        assertArrayEquals(sortedInts, Reductions.topK(IntStream.of(ints), Integer.MAX_VALUE));
+        assertArrayEquals(Arrays.copyOf(sortedInts, 100), Reductions.topK(IntStream.of(ints).parallel(), 100));
+        assertArrayEquals(new long[]{9, 7, 7}, Reductions.topK(LongStream.of(7, 1, 9, 7, 3).parallel(), 3));
+        assertArrayEquals(new double[]{Double.NaN, 2.0, 0.0}, Reductions.topK(DoubleStream.of(-0.0, 2.0, Double.NaN, 0.0), 3));
+        assertArrayEquals(new int[0], Reductions.topK(IntStream.empty(), 3));
+
+        assertThrows(IllegalArgumentException.class, () -> Reductions.max(new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> Reductions.min(LongStream.empty()));
+        assertThrows(IllegalArgumentException.class, () -> Reductions.topK(ints, -1));
+    }
+
+    @Test
+    public void parallel_max_test() {
+        List<String> small = List.of("b", "c", "a");
+        assertEquals("c", Reductions.parallelMax(small));
+
+        List<Integer> large = new Random(7).ints(Reductions.PARALLEL_THRESHOLD * 4, 0, 1000).boxed().collect(Collectors.toList());
+        assertEquals(max(large), Reductions.parallelMax(large));
+
+        // 같은 값이 여럿이면 앞의 것을 반환한다.
+        List<Version> versions = new ArrayList<>();
+        for (int i = 0; i < Reductions.PARALLEL_THRESHOLD * 2; i++) {
+            versions.add(new Version(i % 100, i));
+        }
+        assertSame(max(versions), Reductions.parallelMax(versions));
+        assertEquals(99, Reductions.parallelMax(versions).order);
+
+        assertThrows(IllegalArgumentException.class, () -> Reductions.parallelMax(new ArrayList<String>()));
+    }
+
+    // order 는 비교에 쓰지 않는다.
+    private static final class Version implements Comparable<Version> {
+        final int number;
+        final int order;
+
+        Version(int number, int order) {
+            this.number = number;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Version o) {
+            return Integer.compare(number, o.number);
+        }
+    }
 }
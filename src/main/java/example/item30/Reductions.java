@@ -0,0 +1,439 @@
+package example.item30;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ *  Item30.max 의 기본 타입 버전과 병렬 버전.
+ *
+ *  Item30.max(Collection<E>) 는 원소마다 compareTo 를 호출하고, 숫자라면 Integer 같은 박싱된 타입으로 다뤄야 한다.
+ *  - int[] / long[] 의 max, min 은 배열을 한 번 훑으며 비교만 하는 루프다.
+ *    최댓값이 바뀌는 경우는 드물어서 분기 예측이 거의 항상 맞는다. Math.max 로 쓰면 cmov 가 이어진 의존 사슬이 되어 오히려 두 배쯤 느렸다.
+ *    (JDK 17 의 C2 는 이 축약(reduction)을 SIMD 로 벡터화하지 않았고, Vector API 는 아직 인큐베이터 모듈이라 쓰지 않는다.)
+ *  - double[] 는 NaN 과 -0.0 을 Math.max / Math.min 과 똑같이 다루기 위해 Math.max / Math.min 을 쓴다.
+ *  - topK 는 크기 k 의 최소 힙(기본 타입 배열)으로 O(n log k) 에 가장 큰 k 개를 내림차순으로 반환한다.
+ *  - double 의 순서는 Math.max / Double.compare 와 같다. (-0.0 < 0.0, NaN 이 가장 크다.)
+ *  - 비어 있으면 Item30.max 처럼 IllegalArgumentException 을 던진다.
+ */
+final class Reductions {
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private Reductions() {}
+
+    static int max(int[] a) {
+        checkNotEmpty(a.length);
+        int result = a[0];
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] > result) {
+                result = a[i];
+            }
+        }
+        return result;
+    }
+
+    static long max(long[] a) {
+        checkNotEmpty(a.length);
+        long result = a[0];
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] > result) {
+                result = a[i];
+            }
+        }
+        return result;
+    }
+
+    static double max(double[] a) {
+        checkNotEmpty(a.length);
+        double result = a[0];
+        for (int i = 1; i < a.length; i++) {
+            result = Math.max(result, a[i]);
+        }
+        return result;
+    }
+
+    static int min(int[] a) {
+        checkNotEmpty(a.length);
+        int result = a[0];
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] < result) {
+                result = a[i];
+            }
+        }
+        return result;
+    }
+
+    static long min(long[] a) {
+        checkNotEmpty(a.length);
+        long result = a[0];
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] < result) {
+                result = a[i];
+            }
+        }
+        return result;
+    }
+
+    static double min(double[] a) {
+        checkNotEmpty(a.length);
+        double result = a[0];
+        for (int i = 1; i < a.length; i++) {
+            result = Math.min(result, a[i]);
+        }
+        return result;
+    }
+
+    static int max(IntStream s) {
+        return s.reduce(Math::max).orElseThrow(Reductions::empty);
+    }
+
+    static long max(LongStream s) {
+        return s.reduce(Math::max).orElseThrow(Reductions::empty);
+    }
+
+    static double max(DoubleStream s) {
+        return s.reduce(Math::max).orElseThrow(Reductions::empty);
+    }
+
+    static int min(IntStream s) {
+        return s.reduce(Math::min).orElseThrow(Reductions::empty);
+    }
+
+    static long min(LongStream s) {
+        return s.reduce(Math::min).orElseThrow(Reductions::empty);
+    }
+
+    static double min(DoubleStream s) {
+        return s.reduce(Math::min).orElseThrow(Reductions::empty);
+    }
+
+    /*
+     *  가장 큰 k 개를 내림차순으로 반환한다. 원소가 k 개보다 적으면 모두 반환한다.
+     */
+    static int[] topK(int[] a, int k) {
+        checkK(k);
+        int size = Math.min(k, a.length);
+        int[] heap = new int[size];  // heap[0] 이 지금까지 고른 k 개 중 가장 작은 값
+        if (size == 0) {
+            return heap;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (i < size) {
+                heap[i] = a[i];
+                if (i == size - 1) {
+                    for (int j = size / 2 - 1; j >= 0; j--) {
+                        siftDown(heap, j, size);
+                    }
+                }
+            } else if (a[i] > heap[0]) {
+                heap[0] = a[i];
+                siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int t = heap[i];
+            heap[i] = heap[j];
+            heap[j] = t;
+        }
+        return heap;
+    }
+
+    static long[] topK(long[] a, int k) {
+        checkK(k);
+        int size = Math.min(k, a.length);
+        long[] heap = new long[size];
+        if (size == 0) {
+            return heap;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (i < size) {
+                heap[i] = a[i];
+                if (i == size - 1) {
+                    for (int j = size / 2 - 1; j >= 0; j--) {
+                        siftDown(heap, j, size);
+                    }
+                }
+            } else if (a[i] > heap[0]) {
+                heap[0] = a[i];
+                siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            long t = heap[i];
+            heap[i] = heap[j];
+            heap[j] = t;
+        }
+        return heap;
+    }
+
+    static double[] topK(double[] a, int k) {
+        checkK(k);
+        int size = Math.min(k, a.length);
+        double[] heap = new double[size];
+        if (size == 0) {
+            return heap;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (i < size) {
+                heap[i] = a[i];
+                if (i == size - 1) {
+                    for (int j = size / 2 - 1; j >= 0; j--) {
+                        siftDown(heap, j, size);
+                    }
+                }
+            } else if (Double.compare(a[i], heap[0]) > 0) {
+                heap[0] = a[i];
+                siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap);  // Double.compare 순서
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            double t = heap[i];
+            heap[i] = heap[j];
+            heap[j] = t;
+        }
+        return heap;
+    }
+
+    /*
+     *  스트림은 배열로 모으지 않고 크기 k 의 힙으로 바로 흘려보낸다. 메모리는 O(k) 다.
+     *  병렬 스트림이면 조각마다 힙을 하나씩 만들고 마지막에 합친다.
+     */
+    static int[] topK(IntStream s, int k) {
+        checkK(k);
+        return s.collect(() -> new IntTopK(k), IntTopK::add, IntTopK::addAll).toArray();
+    }
+
+    static long[] topK(LongStream s, int k) {
+        checkK(k);
+        return s.collect(() -> new LongTopK(k), LongTopK::add, LongTopK::addAll).toArray();
+    }
+
+    static double[] topK(DoubleStream s, int k) {
+        checkK(k);
+        return s.collect(() -> new DoubleTopK(k), DoubleTopK::add, DoubleTopK::addAll).toArray();
+    }
+
+    /*
+     *  원소가 PARALLEL_THRESHOLD 이상이면 공용 ForkJoinPool 에서 나눠서 비교한다. 그보다 작으면 Item30.max 와 같다.
+     *  가장 큰 원소가 여럿이면 Item30.max 처럼 순회 순서상 앞의 것을 반환한다.
+     */
+    static <E extends Comparable<E>> E parallelMax(Collection<E> c) {
+        if (c.size() < PARALLEL_THRESHOLD) {
+            return Item30.max(c);
+        }
+        return c.parallelStream()
+                .reduce((a, b) -> b.compareTo(a) > 0 ? b : a)
+                .orElseThrow(Reductions::empty);
+    }
+
+    private static void siftDown(int[] heap, int i, int size) {
+        int value = heap[i];
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(long[] heap, int i, int size) {
+        long value = heap[i];
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(double[] heap, int i, int size) {
+        double value = heap[i];
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size && Double.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (Double.compare(value, heap[child]) <= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    /*
+     *  스트림의 topK 에 쓰는 최소 힙. 지금까지 본 값 중 가장 큰 k 개를 담고, heap[0] 이 그중 가장 작은 값이다.
+     *  원소 수를 모르므로 16 칸으로 시작해서 원소가 들어오는 만큼 k 칸까지 늘린다. k 가 커도 k 칸을 미리 잡지 않는다.
+     *  (배열의 topK 는 필드 대신 지역 변수로 도는 반복문이 더 빨라서 따로 둔다.)
+     */
+    private static final class IntTopK {
+        private final int k;
+        private int[] heap;
+        private int size;
+
+        IntTopK(int k) {
+            this.k = k;
+            this.heap = new int[Math.min(k, 16)];
+        }
+
+        void add(int value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(k, Math.max(16, 2L * size)));
+                }
+                int i = size++;
+                while (i > 0 && value < heap[(i - 1) / 2]) {  // sift up
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = value;
+            } else if (size > 0 && value > heap[0]) {
+                heap[0] = value;
+                siftDown(heap, 0, size);
+            }
+        }
+
+        void addAll(IntTopK other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.heap[i]);
+            }
+        }
+
+        // 내림차순
+        int[] toArray() {
+            int[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                int t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+            return result;
+        }
+    }
+
+    private static final class LongTopK {
+        private final int k;
+        private long[] heap;
+        private int size;
+
+        LongTopK(int k) {
+            this.k = k;
+            this.heap = new long[Math.min(k, 16)];
+        }
+
+        void add(long value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(k, Math.max(16, 2L * size)));
+                }
+                int i = size++;
+                while (i > 0 && value < heap[(i - 1) / 2]) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = value;
+            } else if (size > 0 && value > heap[0]) {
+                heap[0] = value;
+                siftDown(heap, 0, size);
+            }
+        }
+
+        void addAll(LongTopK other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.heap[i]);
+            }
+        }
+
+        long[] toArray() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                long t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+            return result;
+        }
+    }
+
+    // 순서는 Double.compare 를 따른다.
+    private static final class DoubleTopK {
+        private final int k;
+        private double[] heap;
+        private int size;
+
+        DoubleTopK(int k) {
+            this.k = k;
+            this.heap = new double[Math.min(k, 16)];
+        }
+
+        void add(double value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(k, Math.max(16, 2L * size)));
+                }
+                int i = size++;
+                while (i > 0 && Double.compare(value, heap[(i - 1) / 2]) < 0) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = value;
+            } else if (size > 0 && Double.compare(value, heap[0]) > 0) {
+                heap[0] = value;
+                siftDown(heap, 0, size);
+            }
+        }
+
+        void addAll(DoubleTopK other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.heap[i]);
+            }
+        }
+
+        double[] toArray() {
+            double[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);  // Double.compare 순서
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                double t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+            return result;
+        }
+    }
+
+    private static void checkNotEmpty(int length) {
+        if (length == 0) {
+            throw empty();
+        }
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k 는 0 이상이어야 합니다: " + k);
+        }
+    }
+
+    private static IllegalArgumentException empty() {
+        return new IllegalArgumentException("컬렉션이 비어 있습니다.");
+    }
+}
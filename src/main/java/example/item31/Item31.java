@@ -1,7 +1,13 @@
 package example.item31;
 
-import java.util.HashSet;
-import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
  *  아이템 31. 한정적 와일드카드를 사용해 API 유연성을 높여라.
@@ -33,8 +39,92 @@ public class Item31 {
      */
     public static <E> Set<E> union(Set<? extends E> s1, Set<? extends E> s2) {
         Set<E> result = new HashSet<>();
+        result.addAll(s1);
         result.addAll(s2);
         return result;
     }
 
+    /*
+     *  원소가 아주 많다면 SetUnion 을 쓴다. 시그니처는 같다.
+     */
+    @Test
+    public void set_union_test() {
+        Set<Integer> integers = Set.of(1, 3, 5);
+        Set<Double> doubles = Set.of(2.0, 4.0, 6.0);
+        Set<Number> numbers = SetUnion.union(integers, doubles);
+        assertEquals(Set.of(1, 3, 5, 2.0, 4.0, 6.0), numbers);
+
+        Set<Integer> large1 = IntStream.range(0, SetUnion.PARALLEL_THRESHOLD).boxed().collect(Collectors.toSet());
+        Set<Integer> large2 = IntStream.range(SetUnion.PARALLEL_THRESHOLD / 2, SetUnion.PARALLEL_THRESHOLD * 3 / 2)
+                .boxed().collect(Collectors.toSet());
+        Set<Integer> expected = IntStream.range(0, SetUnion.PARALLEL_THRESHOLD * 3 / 2).boxed().collect(Collectors.toSet());
+        assertEquals(expected, SetUnion.union(large1, large2));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Set<Integer> parallel = SetUnion.union(large1, large2, pool);
+            assertEquals(SetUnion.PARALLEL_THRESHOLD * 3 / 2, parallel.size());
+            assertEquals(expected, parallel);
+            assertEquals(expected.hashCode(), parallel.hashCode());
+
+            // 결과는 보통의 Set 처럼 수정할 수 있다.
+            assertTrue(parallel.add(-1));
+            assertFalse(parallel.add(0));
+            assertTrue(parallel.remove(0));
+            assertFalse(parallel.contains(0));
+            parallel.removeIf(i -> i % 2 == 0);
+            assertEquals(expected.size() / 2 + 1, parallel.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sorted_set_union_test() {
+        SortedSet<String> s1 = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        SortedSet<String> s2 = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        s1.addAll(List.of("apple", "Cherry", "egg"));
+        s2.addAll(List.of("banana", "cherry", "date", "fig"));
+
+        Set<String> result = SetUnion.union(s1, s2);
+        assertTrue(result instanceof SortedSet);
+        assertEquals(String.CASE_INSENSITIVE_ORDER, ((SortedSet<String>) result).comparator());
+        assertEquals(List.of("apple", "banana", "Cherry", "date", "egg", "fig"), new ArrayList<>(result));
+
+        // 한쪽이 비어 있어도 같다.
+        SortedSet<String> empty = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        assertEquals(new ArrayList<>(s1), new ArrayList<>(SetUnion.union(s1, empty)));
+        assertEquals(new ArrayList<>(s2), new ArrayList<>(SetUnion.union(empty, s2)));
+
+        // 병합할 때는 Comparator 로 같은지 판단한다. (TreeSet.addAll 과 같다.)
+        SortedSet<String> lower = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        SortedSet<String> upper = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        lower.add("a");
+        upper.add("A");
+        assertEquals(List.of("a"), new ArrayList<>(SetUnion.union(lower, upper)));
+        assertEquals(Set.of("a", "A"), SetUnion.union(new HashSet<>(lower), new HashSet<>(upper)));
+
+        // null 을 허용하는 Comparator 라도 원소를 잃지 않는다.
+        SortedSet<String> withNull = new TreeSet<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        SortedSet<String> others = new TreeSet<>(withNull.comparator());
+        withNull.addAll(Arrays.asList(null, "b"));
+        others.addAll(List.of("a", "c"));
+        assertEquals(Arrays.asList(null, "a", "b", "c"), new ArrayList<>(SetUnion.union(withNull, others)));
+
+        // 자연 순서인 두 SortedSet 도 병합한다. 결과는 자연 순서의 TreeSet 이다.
+        Set<Integer> natural = SetUnion.union(new TreeSet<>(List.of(3, 1, 5)), new TreeSet<>(List.of(2, 3, 4)));
+        assertTrue(natural instanceof SortedSet);
+        assertNull(((SortedSet<Integer>) natural).comparator());
+        assertEquals(List.of(1, 2, 3, 4, 5), new ArrayList<>(natural));
+
+        // 자연 순서인 SortedSet 은 원소 타입이 달라도 된다. (서로 비교할 수 없으므로 해시 기반으로 합친다.)
+        Set<Number> mixed = SetUnion.union(new TreeSet<>(Set.of(1, 2)), new TreeSet<>(Set.of(1.5, 3.0)));
+        assertFalse(mixed instanceof SortedSet);
+        assertEquals(Set.of(1, 2, 1.5, 3.0), mixed);
+
+        // Comparator 가 다르면 해시 기반으로 합친다.
+        SortedSet<Integer> reversed = new TreeSet<>(Comparator.reverseOrder());
+        reversed.addAll(List.of(4, 2));
+        assertEquals(Set.of(1, 2, 3, 4), SetUnion.union(new TreeSet<>(List.of(3, 1)), reversed));
+    }
 }
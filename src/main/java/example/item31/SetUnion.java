@@ -0,0 +1,295 @@
+package example.item31;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ *  큰 집합을 위한 합집합. Item31.union 과 같은 와일드카드 시그니처를 쓴다.
+ *
+ *  Item31.union 은 기본 크기의 HashSet 에 addAll 을 하므로 원소가 늘어날 때마다 여러 번 리해싱(rehash)하고, 한 코어만 쓴다.
+ *  - 두 입력이 같은 Comparator 를 쓰는(둘 다 자연 순서인 경우도 포함) SortedSet 이면 정렬된 두 목록을 선형으로 병합하고,
+ *    그 결과로 TreeSet 을 한 번에 만든다. (O(n), 비교만 한다.)
+ *    이때는 TreeSet.addAll 처럼 Comparator 로 같은지 판단한다. equals 와 어긋나는 Comparator(예: CASE_INSENSITIVE_ORDER)라면
+ *    {"a"} ∪ {"A"} 는 원소 하나다. (Item31.union 은 equals 로 판단하므로 둘이다.)
+ *    자연 순서인 두 SortedSet 은 원소 타입이 서로 다를 수 있다.(Integer 와 Double 등) 서로 비교할 수 없으면(ClassCastException) 해시 기반으로 합친다.
+ *  - 그 밖에는 입력 크기의 합으로 HashSet 의 크기를 미리 잡아서 리해싱이 일어나지 않게 한다.
+ *  - 원소 수의 합이 PARALLEL_THRESHOLD 이상이고 ForkJoinPool 의 병렬성이 2 이상이면, 해시값으로 원소를 파티션에 나눠
+ *    파티션마다 부분 집합을 병렬로 만들고 그 부분 집합들을 묶은 Set 을 반환한다. (parallelUnion 참고)
+ */
+final class SetUnion {
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private SetUnion() {}
+
+    static <E> Set<E> union(Set<? extends E> s1, Set<? extends E> s2) {
+        return union(s1, s2, ForkJoinPool.commonPool());
+    }
+
+    static <E> Set<E> union(Set<? extends E> s1, Set<? extends E> s2, ForkJoinPool pool) {
+        if (s1 instanceof SortedSet && s2 instanceof SortedSet
+                && Objects.equals(((SortedSet<?>) s1).comparator(), ((SortedSet<?>) s2).comparator())) {
+            try {
+                return sortedUnion((SortedSet<? extends E>) s1, (SortedSet<? extends E>) s2);
+            } catch (ClassCastException e) {
+                // 자연 순서인데 두 집합의 원소를 서로 비교할 수 없다. 아래의 해시 기반으로 합친다.
+            }
+        }
+        long total = (long) s1.size() + s2.size();
+        if (total < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            Set<E> result = new HashSet<>(capacityFor(total));
+            result.addAll(s1);
+            result.addAll(s2);
+            return result;
+        }
+        return parallelUnion(s1, s2, pool);
+    }
+
+    /*
+     *  HashSet 의 기본 부하율(0.75)에서 리해싱 없이 n 개를 담을 수 있는 용량
+     */
+    static int capacityFor(long n) {
+        return (int) Math.min(Integer.MAX_VALUE, n * 4 / 3 + 1);
+    }
+
+    /*
+     *  같은 Comparator 로 정렬된 두 집합을 병합해 중복(비교 결과가 0)을 한 번만 남긴다.
+     *  TreeSet(SortedSet) 생성자는 입력이 같은 Comparator 로 정렬되어 있으면 비교 없이 선형 시간에 트리를 만든다.
+     *  Comparator 가 null(자연 순서)이면 compareTo 로 비교하고, 결과 TreeSet 도 자연 순서다.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> SortedSet<E> sortedUnion(SortedSet<? extends E> s1, SortedSet<? extends E> s2) {
+        Comparator<? super E> comparator = (Comparator<? super E>) s1.comparator();
+        Comparator<? super E> order = comparator != null ? comparator : (Comparator<? super E>) Comparator.naturalOrder();
+
+        List<E> merged = new ArrayList<>(s1.size() + s2.size());
+        Iterator<? extends E> left = s1.iterator();
+        Iterator<? extends E> right = s2.iterator();
+        boolean hasA = left.hasNext();
+        boolean hasB = right.hasNext();
+        E a = hasA ? left.next() : null;
+        E b = hasB ? right.next() : null;
+        while (hasA && hasB) {
+            int c = order.compare(a, b);
+            if (c <= 0) {
+                merged.add(a);
+                hasA = left.hasNext();
+                if (hasA) {
+                    a = left.next();
+                }
+            }
+            if (c >= 0) {
+                if (c > 0) {
+                    merged.add(b);
+                }
+                hasB = right.hasNext();
+                if (hasB) {
+                    b = right.next();
+                }
+            }
+        }
+        if (hasA) {
+            merged.add(a);
+            left.forEachRemaining(merged::add);
+        }
+        if (hasB) {
+            merged.add(b);
+            right.forEachRemaining(merged::add);
+        }
+        return new TreeSet<>(new SortedListView<>(merged, comparator));
+    }
+
+    /*
+     *  1. 입력을 여러 조각으로 나눠 병렬로 훑으며, 원소를 해시값에 따라 파티션별 목록에 나눠 담는다.
+     *  2. 파티션마다 크기를 미리 잡은 HashSet 을 병렬로 만든다. 같은 원소는 항상 같은 파티션에 가므로 파티션끼리는 겹치지 않는다.
+     *  부분 집합을 서로 addAll 로 합치면 마지막 합치기가 결국 한 스레드에서 원소 수만큼 해싱하게 되므로, 합치지 않고 PartitionedSet 으로 묶는다.
+     */
+    private static <E> Set<E> parallelUnion(Set<? extends E> s1, Set<? extends E> s2, ForkJoinPool pool) {
+        int bits = 32 - Integer.numberOfLeadingZeros(pool.getParallelism() * 4 - 1);
+        int partitions = 1 << bits;
+        return pool.submit(() -> {
+            List<List<E>> buckets = Stream.<E>concat(s1.stream(), s2.stream())
+                    .parallel()
+                    .collect(Collector.<E, List<List<E>>>of(
+                            () -> newBuckets(partitions),
+                            (part, e) -> part.get(partitionOf(e, bits)).add(e),
+                            (a, b) -> {
+                                for (int p = 0; p < partitions; p++) {
+                                    a.get(p).addAll(b.get(p));  // 참조만 복사한다. 해싱은 다음 단계에서 한다.
+                                }
+                                return a;
+                            },
+                            Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH));
+            @SuppressWarnings("unchecked")
+            Set<E>[] sets = (Set<E>[]) new Set<?>[partitions];
+            IntStream.range(0, partitions).parallel().forEach(p -> {
+                List<E> bucket = buckets.get(p);
+                Set<E> set = new HashSet<>(capacityFor(bucket.size()));
+                set.addAll(bucket);
+                sets[p] = set;
+            });
+            return new PartitionedSet<>(sets, bits);
+        }).join();
+    }
+
+    private static <E> List<List<E>> newBuckets(int partitions) {
+        List<List<E>> buckets = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            buckets.add(new ArrayList<>());
+        }
+        return buckets;
+    }
+
+    /*
+     *  HashSet 은 해시의 하위 비트로 버킷을 고르므로, 파티션은 섞은 해시의 상위 비트로 고른다.
+     */
+    private static int partitionOf(Object e, int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        int h = Objects.hashCode(e);
+        return ((h ^ (h >>> 16)) * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    /*
+     *  서로 겹치지 않는 HashSet 여러 개를 하나의 Set 으로 보이게 한다. 원소는 partitionOf 로 정해진 파티션에만 있다.
+     *  add / remove 도 해당 파티션으로 보내므로 HashSet 처럼 수정할 수 있다. (스레드 세이프하지 않다.)
+     */
+    private static final class PartitionedSet<E> extends AbstractSet<E> {
+        private final Set<E>[] partitions;
+        private final int bits;
+
+        PartitionedSet(Set<E>[] partitions, int bits) {
+            this.partitions = partitions;
+            this.bits = bits;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Set<E> partition : partitions) {
+                size += partition.size();
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return partitions[partitionOf(o, bits)].contains(o);
+        }
+
+        @Override
+        public boolean add(E e) {
+            return partitions[partitionOf(e, bits)].add(e);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return partitions[partitionOf(o, bits)].remove(o);
+        }
+
+        @Override
+        public void clear() {
+            for (Set<E> partition : partitions) {
+                partition.clear();
+            }
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private int next;
+                private Iterator<E> current = Collections.emptyIterator();
+                private Iterator<E> last;
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && next < partitions.length) {
+                        current = partitions[next++].iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = current;
+                    return current.next();
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    last.remove();
+                    last = null;
+                }
+            };
+        }
+    }
+
+    /*
+     *  정렬된 List 를 TreeSet 생성자에 넘기기 위한 읽기 전용 SortedSet.
+     *  TreeSet 은 size, iterator, comparator 만 쓴다.
+     */
+    private static final class SortedListView<E> extends AbstractSet<E> implements SortedSet<E> {
+        private final List<E> elements;
+        private final Comparator<? super E> comparator;
+
+        SortedListView(List<E> elements, Comparator<? super E> comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return Collections.unmodifiableList(elements).iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public E first() {
+            if (elements.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return elements.get(0);
+        }
+
+        @Override
+        public E last() {
+            if (elements.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return elements.get(elements.size() - 1);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package example.item42;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+
+/*
+ *  Operation 으로 이루어진 수식 트리.
+ *
+ *  evaluate 로 트리를 그대로 해석(interpret)하면 노드마다 가상 호출과 Operation 의 람다 호출이 일어난다.
+ *  같은 수식을 수백만 행에 적용할 때는 compile() 로 트리 전체를 MethodHandle 하나로 합성해 두고 재사용한다.
+ *  - 변수 x_k 는 k 번째 열(column) 배열의 row 번째 값이다. 합성된 핸들의 타입은 (double[][] columns, int row)double 이다.
+ *  - 트리를 걷는 가상 호출과 노드마다의 evaluate 호출이 없어진다. 연산은 Operation 의 정적 메서드를 직접 가리키므로 람다 호출도 없다.
+ *  - Compiled 의 핸들은 상수가 아닌 인스턴스 필드라서 JIT 이 호출하는 쪽에 인라이닝하지 못한다.
+ *    그래서 행을 도는 반복문도 핸들 안에 합성해서(countedLoop) 인라이닝되지 않는 호출을 evaluate 마다 한 번으로 줄인다.
+ *    그래도 연산 하나씩 열 전체에 적용하는 Operation.apply(double[], double[], double[]) 가 조금 더 빠르다.
+ */
+abstract class Expression {
+    private static final MethodType ROW_TYPE = MethodType.methodType(double.class, double[][].class, int.class);
+    private static final MethodHandle COLUMN_GETTER = MethodHandles.arrayElementGetter(double[][].class);
+    private static final MethodHandle ELEMENT_GETTER = MethodHandles.arrayElementGetter(double[].class);
+
+    private Expression() {}
+
+    static Expression variable(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("변수 번호는 0 이상이어야 합니다.");
+        }
+        return new Variable(index);
+    }
+
+    static Expression constant(double value) {
+        return new Constant(value);
+    }
+
+    static Expression of(Operation operation, Expression left, Expression right) {
+        return new Binary(Objects.requireNonNull(operation), Objects.requireNonNull(left), Objects.requireNonNull(right));
+    }
+
+    abstract double evaluate(double... variables);
+
+    // (double[][] columns, int row)double 타입의 핸들을 만든다.
+    abstract MethodHandle toHandle();
+
+    Compiled compile() {
+        return new Compiled(toHandle());
+    }
+
+    private static final class Variable extends Expression {
+        final int index;
+
+        Variable(int index) {
+            this.index = index;
+        }
+
+        @Override
+        double evaluate(double... variables) {
+            return variables[index];
+        }
+
+        @Override
+        MethodHandle toHandle() {
+            // columns -> columns[index]
+            MethodHandle column = MethodHandles.insertArguments(COLUMN_GETTER, 1, index);
+            // (columns, row) -> columns[index][row]
+            return MethodHandles.filterArguments(ELEMENT_GETTER, 0, column);
+        }
+
+        @Override
+        public String toString() {
+            return "x" + index;
+        }
+    }
+
+    private static final class Constant extends Expression {
+        final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double evaluate(double... variables) {
+            return value;
+        }
+
+        @Override
+        MethodHandle toHandle() {
+            return MethodHandles.dropArguments(MethodHandles.constant(double.class, value), 0, double[][].class, int.class);
+        }
+
+        @Override
+        public String toString() {
+            return Double.toString(value);
+        }
+    }
+
+    private static final class Binary extends Expression {
+        final Operation operation;
+        final Expression left;
+        final Expression right;
+
+        Binary(Operation operation, Expression left, Expression right) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double... variables) {
+            return operation.apply(left.evaluate(variables), right.evaluate(variables));
+        }
+
+        @Override
+        MethodHandle toHandle() {
+            // (c1, r1, c2, r2) -> op(left(c1, r1), right(c2, r2))
+            MethodHandle combined = MethodHandles.collectArguments(operation.handle(), 0, left.toHandle());
+            combined = MethodHandles.collectArguments(combined, 2, right.toHandle());
+            // 같은 (columns, row) 를 양쪽에 넘기도록 인자를 합친다.
+            return MethodHandles.permuteArguments(combined, ROW_TYPE, 0, 1, 0, 1);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operation.symbol() + " " + right + ")";
+        }
+    }
+
+    /*
+     *  compile() 의 결과. 한 번 만들어 두고 여러 번 평가한다.
+     */
+    static final class Compiled {
+        private final MethodHandle handle;
+        private final MethodHandle loop;
+
+        private Compiled(MethodHandle handle) {
+            this.handle = handle;
+            this.loop = rowLoop(handle);
+        }
+
+        /*
+         *  열 단위(columnar) 평가. out[row] = expression(columns[0][row], columns[1][row], ...)
+         */
+        void evaluate(double[][] columns, double[] out) {
+            for (double[] column : columns) {
+                if (column.length < out.length) {
+                    throw new IllegalArgumentException("열의 길이가 out 보다 짧습니다.");
+                }
+            }
+            try {
+                loop.invokeExact(columns, out);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        double evaluate(double... variables) {
+            double[][] columns = new double[variables.length][];
+            for (int i = 0; i < variables.length; i++) {
+                columns[i] = new double[]{variables[i]};
+            }
+            try {
+                return (double) handle.invokeExact(columns, 0);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        /*
+         *  (double[][] columns, double[] out)void 타입의 핸들. for (row = 0; row < out.length; row++) out[row] = handle(columns, row)
+         *  반복문까지 핸들 안에 넣으면 인라이닝되지 않는 호출이 행마다가 아니라 evaluate 마다 한 번으로 줄어든다.
+         */
+        private static MethodHandle rowLoop(MethodHandle handle) {
+            // (out, row, columns, row) -> out[row] = handle(columns, row)
+            MethodHandle store = MethodHandles.collectArguments(MethodHandles.arrayElementSetter(double[].class), 2, handle);
+            // (row, columns, out) -> out[row] = handle(columns, row)
+            MethodHandle body = MethodHandles.permuteArguments(store,
+                    MethodType.methodType(void.class, int.class, double[][].class, double[].class), 2, 0, 1, 0);
+            // (columns, out) -> out.length
+            MethodHandle iterations = MethodHandles.dropArguments(MethodHandles.arrayLength(double[].class), 0, double[][].class);
+            return MethodHandles.countedLoop(iterations, null, body);
+        }
+
+        private static RuntimeException rethrow(Throwable t) {
+            if (t instanceof RuntimeException) {
+                return (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            return new IllegalStateException(t);
+        }
+    }
+}
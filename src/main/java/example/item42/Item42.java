@@ -2,13 +2,24 @@ package example.item42;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.DoubleBinaryOperator;
 
 import static java.util.Comparator.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /*
  *   아이템 42. 익명 클래스보다는 람다를 사용하라.
@@ -60,22 +71,97 @@ public class Item42 {
 }
 
 enum Operation {
-    PLUS ("+", (x, y) -> x + y),
-    MINUS ("-", (x, y) -> x - y),
-    TIMES ("*", (x, y) -> x * y),
-    DIVIDE ("/", (x, y) -> x / y);
+    PLUS ("+", "plus", Operation::plus),
+    MINUS ("-", "minus", Operation::minus),
+    TIMES ("*", "times", Operation::times),
+    DIVIDE ("/", "divide", Operation::divide);
 
     private final String symbol;
+    private final String kernel;
     private final DoubleBinaryOperator op;
 
-    Operation(String symbol, DoubleBinaryOperator op) {
+    /*
+     *  연산은 아래의 정적 메서드(kernel)에 한 번만 정의한다. 람다(op), handle(), 배열 반복문이 모두 같은 메서드를 부른다.
+     *  kernel 은 그 메서드의 이름이다. name().toLowerCase() 는 기본 로케일을 따르므로(tr 이면 MINUS 가 "mınus") 이름을 직접 적는다.
+     */
+    Operation(String symbol, String kernel, DoubleBinaryOperator op) {
         this.symbol = symbol;
+        this.kernel = kernel;
         this.op = op;
     }
 
     public double apply(double x, double y) {
         return op.applyAsDouble(x, y);
     }
+
+    /*
+     *  같은 연산을 배열 전체에 적용한다. out[i] = xs[i] op ys[i]
+     *  원소마다 람다(DoubleBinaryOperator)를 호출하지 않도록 상수별로 단순한 반복문을 두고, 반복문 안에서 정적 메서드를 직접 부른다. (JIT 이 인라이닝한다.)
+     *  out 은 xs 나 ys 와 같은 배열이어도 된다.
+     */
+    public void apply(double[] xs, double[] ys, double[] out) {
+        int n = out.length;
+        if (xs.length != n || ys.length != n) {
+            throw new IllegalArgumentException("배열의 길이가 다릅니다.");
+        }
+        switch (this) {
+            case PLUS:
+                for (int i = 0; i < n; i++) out[i] = plus(xs[i], ys[i]);
+                break;
+            case MINUS:
+                for (int i = 0; i < n; i++) out[i] = minus(xs[i], ys[i]);
+                break;
+            case TIMES:
+                for (int i = 0; i < n; i++) out[i] = times(xs[i], ys[i]);
+                break;
+            case DIVIDE:
+                for (int i = 0; i < n; i++) out[i] = divide(xs[i], ys[i]);
+                break;
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+    /*
+     *  (double, double)double 타입의 MethodHandle. Expression 을 하나의 MethodHandle 로 합성할 때 쓴다.
+     *  정적 메서드를 직접 가리키는 핸들이므로 합성된 핸들 안에 람다 호출이 끼지 않는다.
+     */
+    MethodHandle handle() {
+        return HANDLES[ordinal()];
+    }
+
+    String symbol() {
+        return symbol;
+    }
+
+    private static final MethodHandle[] HANDLES = new MethodHandle[values().length];
+
+    static {
+        MethodType type = MethodType.methodType(double.class, double.class, double.class);
+        try {
+            for (Operation operation : values()) {
+                HANDLES[operation.ordinal()] = MethodHandles.lookup().findStatic(Operation.class, operation.kernel, type);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static double plus(double x, double y) {
+        return x + y;
+    }
+
+    private static double minus(double x, double y) {
+        return x - y;
+    }
+
+    private static double times(double x, double y) {
+        return x * y;
+    }
+
+    private static double divide(double x, double y) {
+        return x / y;
+    }
 }
 
 /*
@@ -123,3 +209,162 @@ class PayTest01 {
         samsungPay.doPayment();  // 삼성페이 결제를 완료하였습니다.
     }
 }
+
+class OperationTest01 {
+    @Test
+    public void batch_apply_test() {
+        double[] xs = {1, 2, 3, 4, -0.0, 0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.MAX_VALUE, -7};
+        double[] ys = {10, 20, 30, 40, 0.0, -0.0, 1, Double.POSITIVE_INFINITY, 2, 0};
+        double[] out = new double[xs.length];
+
+        // 상수별 반복문이 람다, handle() 과 같은 연산을 하는지 본다. (-0.0 과 NaN 도 비트까지 같아야 한다.)
+        for (Operation operation : Operation.values()) {
+            operation.apply(xs, ys, out);
+            for (int i = 0; i < out.length; i++) {
+                assertEquals(operation.apply(xs[i], ys[i]), out[i]);
+                assertEquals(operation.apply(xs[i], ys[i]), Expression.of(operation,
+                        Expression.variable(0), Expression.variable(1)).compile().evaluate(xs[i], ys[i]));
+            }
+        }
+    }
+
+    @Test
+    public void turkish_locale_test() throws Exception {
+        // Operation 의 초기화가 기본 로케일에 영향을 받지 않는다. (정적 메서드를 이름으로 찾으므로 toLowerCase() 를 쓰면 안 된다.)
+        // 이미 초기화된 Operation 으로는 확인할 수 없으므로 새 클래스 로더로 다시 올린다.
+        URL classes = Operation.class.getProtectionDomain().getCodeSource().getLocation();
+        Locale previous = Locale.getDefault();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes}, null)) {
+            Locale.setDefault(new Locale("tr", "TR"));
+            Class<?> operation = Class.forName("example.item42.Operation", true, loader);
+            Method valueOf = operation.getDeclaredMethod("valueOf", String.class);
+            Method apply = operation.getDeclaredMethod("apply", double.class, double.class);
+            valueOf.setAccessible(true);
+            apply.setAccessible(true);
+            assertEquals(-9.0, apply.invoke(valueOf.invoke(null, "MINUS"), 1.0, 10.0));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void compiled_expression_test() {
+        // (x + y) * (x - 2) / y
+        Expression x = Expression.variable(0);
+        Expression y = Expression.variable(1);
+        Expression expression = Expression.of(Operation.DIVIDE,
+                Expression.of(Operation.TIMES,
+                        Expression.of(Operation.PLUS, x, y),
+                        Expression.of(Operation.MINUS, x, Expression.constant(2))),
+                y);
+        assertEquals("(((x0 + x1) * (x0 - 2.0)) / x1)", expression.toString());
+
+        double[] xs = {1, 2, 3, 4, 5};
+        double[] ys = {5, 4, 3, 2, 1};
+        double[] out = new double[5];
+        Expression.Compiled compiled = expression.compile();
+        compiled.evaluate(new double[][]{xs, ys}, out);
+
+        double[] expected = new double[5];
+        for (int i = 0; i < xs.length; i++) {
+            expected[i] = expression.evaluate(xs[i], ys[i]);
+            assertEquals(expected[i], compiled.evaluate(xs[i], ys[i]));
+        }
+        assertArrayEquals(expected, out);
+    }
+}
+
+class PayTest02 {
+    @Test
+    public void payment_dispatcher_test() throws Exception {
+        Map<PaymentType, LongAdder> payments = new EnumMap<>(PaymentType.class);
+        LongAdder providerCalls = new LongAdder();
+        for (PaymentType type : PaymentType.values()) {
+            payments.put(type, new LongAdder());
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (PaymentDispatcher dispatcher = PaymentDispatcher.create((type, count) -> {
+            providerCalls.increment();
+            payments.get(type).add(count);
+            Thread.sleep(5);  // 결제사 호출이 I/O 로 막히는 시간
+        })) {
+            for (int i = 0; i < 300; i++) {
+                futures.add(dispatcher.submit(PaymentType.values()[i % 3]));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        }
+
+        for (PaymentType type : PaymentType.values()) {
+            assertEquals(100, payments.get(type).sum());
+        }
+        assertTrue(providerCalls.sum() < 300);  // 여러 건이 한 번의 호출로 묶였다.
+    }
+
+    /*
+     *  제출과 close 가 겹쳐도 받은 future 는 모두 끝난다. (처리되거나 RejectedExecutionException)
+     *  작은 큐로 submit 이 put 에서 막혀 있는 동안 닫히는 경우도 만든다.
+     */
+    @Test
+    public void close_while_submitting_test() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            PaymentDispatcher dispatcher = new PaymentDispatcher((type, count) -> Thread.sleep(1), 4, 2,
+                    Duration.ofMillis(1), 1, Executors.newCachedThreadPool());
+            List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+            ExecutorService clients = Executors.newFixedThreadPool(4);
+            for (int c = 0; c < 4; c++) {
+                clients.execute(() -> {
+                    try {
+                        for (int i = 0; i < 1000; i++) {
+                            futures.add(dispatcher.submit(PaymentType.values()[i % 3]));
+                        }
+                    } catch (IllegalStateException e) {
+                        // 닫힌 뒤의 submit
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            Thread.sleep(round % 5);
+            dispatcher.close();
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof RejectedExecutionException);
+                }
+            }
+        }
+    }
+
+    /*
+     *  executor 가 묶음을 거절해도 그 묶음의 future 는 실패로 끝나고, 허가가 돌아와서 레인은 계속 일한다.
+     */
+    @Test
+    public void rejected_batch_test() throws Exception {
+        LongAdder processed = new LongAdder();
+        AtomicBoolean reject = new AtomicBoolean(true);
+        ExecutorService flaky = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                if (reject.getAndSet(false)) {
+                    throw new RejectedExecutionException("거절");  // 첫 묶음만 거절한다.
+                }
+                super.execute(command);
+            }
+        };
+        try (PaymentDispatcher dispatcher = new PaymentDispatcher((type, count) -> processed.add(count), 10, 10,
+                Duration.ofMillis(1), 1, flaky)) {
+            CompletableFuture<Void> first = dispatcher.submit(PaymentType.NAVER_PAY);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+
+            dispatcher.submit(PaymentType.NAVER_PAY).get(10, TimeUnit.SECONDS);
+            dispatcher.submit(PaymentType.NAVER_PAY).get(10, TimeUnit.SECONDS);  // 허가가 하나뿐이므로 돌려받지 못했다면 여기서 멈춘다.
+        }
+        assertEquals(2, processed.sum());
+    }
+}
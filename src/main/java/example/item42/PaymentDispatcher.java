@@ -0,0 +1,282 @@
+package example.item42;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+
+/*
+ *  PaymentType 결제를 호출한 스레드에서 바로 처리하지 않고 비동기로 모아서 처리하는 디스패처.
+ *
+ *  - submit 은 CompletableFuture 를 바로 반환한다. 결제가 끝나면 완료된다.
+ *  - 결제 방식(PaymentType)마다 큐를 두고, 첫 요청이 들어온 뒤 batchWindow 동안 들어온 요청(최대 maxBatchSize 개)을 한 번에 처리한다.
+ *    결제사 호출이 I/O 로 막히는 시간이 요청 수만큼이 아니라 묶음(batch) 수만큼만 든다.
+ *  - 큐와 동시에 처리 중인 묶음 수가 모두 제한되어 있어서, 결제사가 느려지면 submit 이 기다리며 호출자 쪽으로 압력(backpressure)이 전달된다.
+ *  - 묶음은 executor 에서 실행된다. 가상 스레드(Java 21 이상)를 쓸 수 있으면 기본으로 가상 스레드를 쓰고, 아니면 캐시 스레드 풀을 쓴다.
+ *  - 반환된 future 는 어떤 경우에도 끝난다. 닫히는 순간과 겹쳐서 처리되지 못한 요청은 RejectedExecutionException 으로 실패한다.
+ *    (레인 스레드는 마지막으로 큐를 비우기 전에 stopped 를 켜고, 제출한 쪽은 큐에 넣은 뒤 stopped 를 다시 확인해서 직접 비운다.
+ *    그래서 레인이 멈춘 뒤에 큐에 들어간 요청도 둘 중 한쪽이 반드시 꺼낸다.)
+ */
+final class PaymentDispatcher implements AutoCloseable {
+    private final BatchPaymentProcess process;
+    private final int maxBatchSize;
+    private final long batchWindowNanos;
+    private final ExecutorService executor;
+    private final Semaphore inFlightBatches;
+    private final Map<PaymentType, Lane> lanes = new EnumMap<>(PaymentType.class);
+    private final CompletableFuture<Void> closeSignal = new CompletableFuture<>();  // take() 로 기다리는 레인을 깨운다.
+    private volatile boolean closed;
+
+    PaymentDispatcher(BatchPaymentProcess process, int queueCapacity, int maxBatchSize,
+                      Duration batchWindow, int maxInFlightBatches, ExecutorService executor) {
+        if (queueCapacity <= 0 || maxBatchSize <= 0 || maxInFlightBatches <= 0) {
+            throw new IllegalArgumentException("큐 용량, 묶음 크기, 동시 처리 묶음 수는 1 이상이어야 합니다.");
+        }
+        this.process = Objects.requireNonNull(process);
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.executor = Objects.requireNonNull(executor);
+        this.inFlightBatches = new Semaphore(maxInFlightBatches);
+        for (PaymentType type : PaymentType.values()) {
+            lanes.put(type, new Lane(type, queueCapacity));
+        }
+    }
+
+    /*
+     *  큐 10000, 묶음 최대 100 개, 2ms 창, 동시 묶음 256 개
+     */
+    static PaymentDispatcher create(BatchPaymentProcess process) {
+        return new PaymentDispatcher(process, 10_000, 100, Duration.ofMillis(2), 256, defaultExecutor());
+    }
+
+    /*
+     *  큐가 가득 차 있으면 자리가 날 때까지 기다린다.
+     */
+    CompletableFuture<Void> submit(PaymentType type) throws InterruptedException {
+        checkOpen();
+        Lane lane = lanes.get(type);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        lane.queue.put(future);
+        lane.rejectIfStopped();
+        return future;
+    }
+
+    /*
+     *  큐가 가득 차 있으면 기다리지 않고 RejectedExecutionException 으로 실패한 future 를 반환한다.
+     */
+    CompletableFuture<Void> trySubmit(PaymentType type) {
+        checkOpen();
+        Lane lane = lanes.get(type);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (lane.queue.offer(future)) {
+            lane.rejectIfStopped();
+        } else {
+            future.completeExceptionally(new RejectedExecutionException(type + " 결제 대기열이 가득 찼습니다."));
+        }
+        return future;
+    }
+
+    /*
+     *  새 요청은 더 받지 않고, 이미 받은 요청은 모두 처리한 뒤 반환한다. 처리 중인 묶음이 끝날 때까지 기다린다.
+     *  기다리는 중에 인터럽트되면 남은 요청은 처리하지 않고 실패시키고, executor 도 shutdownNow 한 뒤 끝날 때까지 기다린다.
+     *  (ExecutorService.close 와 같은 방식이다.) 인터럽트 상태는 되돌려 놓는다.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        try {
+            for (Lane lane : lanes.values()) {
+                lane.queue.put(closeSignal);
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            lanes.values().forEach(lane -> lane.thread.interrupt());
+        }
+        for (Lane lane : lanes.values()) {
+            while (lane.thread.isAlive()) {
+                try {
+                    lane.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    lanes.values().forEach(l -> l.thread.interrupt());
+                }
+            }
+        }
+        executor.shutdown();
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                executor.shutdownNow();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("이미 닫힌 디스패처입니다.");
+        }
+    }
+
+    private static ExecutorService defaultExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "payment-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /*
+     *  결제 방식 하나의 큐와, 큐에서 묶음을 만들어 executor 에 넘기는 전용 스레드
+     */
+    private final class Lane implements Runnable {
+        final PaymentType type;
+        final BlockingQueue<CompletableFuture<Void>> queue;
+        final Thread thread;
+        volatile boolean stopped;
+
+        Lane(PaymentType type, int queueCapacity) {
+            this.type = type;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "payment-batcher-" + type.name());
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                boolean closing = false;
+                while (true) {
+                    // 닫는 중에는 기다리지 않고 큐에 남은 것만 처리한다.
+                    CompletableFuture<Void> first = closing ? queue.poll() : queue.take();
+                    if (first == null) {
+                        break;
+                    }
+                    if (first == closeSignal) {
+                        closing = true;
+                        continue;
+                    }
+                    List<CompletableFuture<Void>> batch = collectBatch(first);
+                    if (batch.remove(closeSignal)) {
+                        closing = true;
+                    }
+                    dispatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped = true;
+                rejectRemaining();
+            }
+        }
+
+        /*
+         *  레인이 멈춘 뒤에 큐에 들어간 요청은 아무도 꺼내지 않으므로 넣은 쪽에서 실패시킨다.
+         */
+        void rejectIfStopped() {
+            if (stopped) {
+                rejectRemaining();
+            }
+        }
+
+        private void rejectRemaining() {
+            CompletableFuture<Void> left;
+            while ((left = queue.poll()) != null) {
+                if (left != closeSignal) {
+                    left.completeExceptionally(new RejectedExecutionException("디스패처가 닫혔습니다."));
+                }
+            }
+        }
+
+        private List<CompletableFuture<Void>> collectBatch(CompletableFuture<Void> first) {
+            List<CompletableFuture<Void>> batch = new ArrayList<>(maxBatchSize);
+            batch.add(first);
+            long deadline = System.nanoTime() + batchWindowNanos;
+            try {
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0 || batch.contains(closeSignal)) {
+                        break;
+                    }
+                    CompletableFuture<Void> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();  // 모은 묶음은 dispatch 에서 실패시킨다.
+            }
+            return batch;
+        }
+
+        // 묶음의 future 는 여기서 실패하거나 process 에서 끝난다. 어느 쪽이든 허가(permit)는 한 번만 돌려준다.
+        private void dispatch(List<CompletableFuture<Void>> batch) throws InterruptedException {
+            try {
+                inFlightBatches.acquire();
+            } catch (InterruptedException e) {
+                fail(batch, new RejectedExecutionException("디스패처가 닫혔습니다."));
+                throw e;
+            }
+            try {
+                executor.execute(() -> process(batch));
+            } catch (Throwable t) {
+                inFlightBatches.release();
+                fail(batch, t);
+            }
+        }
+
+        private void fail(List<CompletableFuture<Void>> batch, Throwable cause) {
+            batch.forEach(future -> future.completeExceptionally(cause));
+        }
+
+        private void process(List<CompletableFuture<Void>> batch) {
+            try {
+                process.process(type, batch.size());
+                batch.forEach(future -> future.complete(null));
+            } catch (Throwable t) {
+                fail(batch, t);
+            } finally {
+                inFlightBatches.release();
+            }
+        }
+    }
+}
+
+/*
+ *  결제 count 건을 한 번의 결제사 호출로 처리한다.
+ */
+@FunctionalInterface
+interface BatchPaymentProcess {
+    void process(PaymentType type, int count) throws Exception;
+
+    /*
+     *  묶음을 지원하지 않는 기존 PaymentProcess 를 건수만큼 호출한다.
+     */
+    static BatchPaymentProcess sequential() {
+        return (type, count) -> {
+            for (int i = 0; i < count; i++) {
+                type.doPayment();
+            }
+        };
+    }
+}
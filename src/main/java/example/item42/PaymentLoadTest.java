@@ -0,0 +1,72 @@
+package example.item42;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ *  지연 시간이 있는 가짜 결제사로 지금처럼 순서대로 doPayment 하는 방식과 PaymentDispatcher 를 비교한다.
+ *  가짜 결제사는 호출 한 번에 latency 만큼 I/O 로 막혔다가 돌아온다. (한 번의 호출로 여러 건을 처리할 수 있다.)
+ *
+ *  args[0] : 결제 건수 (기본 2000)
+ *  args[1] : 결제사 호출 한 번의 지연 시간 ms (기본 2)
+ */
+class PaymentLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        BatchPaymentProcess fakeProvider = (type, count) -> Thread.sleep(latencyMillis);
+
+        // 1. 지금처럼 요청 스레드에서 한 건씩 처리
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long requestStart = System.nanoTime();
+            fakeProvider.process(PaymentType.values()[i % PaymentType.values().length], 1);
+            latencies[i] = System.nanoTime() - requestStart;
+        }
+        report("sequential", requests, System.nanoTime() - start, latencies);
+
+        // 2. PaymentDispatcher (요청 스레드 8개가 동시에 제출)
+        int clients = 8;
+        long[] dispatchedLatencies = new long[requests];
+        ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+        try (PaymentDispatcher dispatcher = PaymentDispatcher.create(fakeProvider)) {
+            start = System.nanoTime();
+            List<Future<?>> submitted = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                submitted.add(clientPool.submit(() -> {
+                    List<CompletableFuture<Void>> futures = new ArrayList<>();
+                    for (int i = client; i < requests; i += clients) {
+                        int index = i;
+                        long requestStart = System.nanoTime();
+                        futures.add(dispatcher.submit(PaymentType.values()[i % PaymentType.values().length])
+                                .thenRun(() -> dispatchedLatencies[index] = System.nanoTime() - requestStart));
+                    }
+                    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+                    return null;
+                }));
+            }
+            for (Future<?> future : submitted) {
+                future.get();
+            }
+            report("dispatcher", requests, System.nanoTime() - start, dispatchedLatencies);
+        } finally {
+            clientPool.shutdown();
+        }
+    }
+
+    private static void report(String name, int requests, long elapsedNanos, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        long p99 = sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+        System.out.printf("%-10s throughput = %.0f req/s, p99 latency = %.2f ms%n",
+                name, requests / (elapsedNanos / 1e9), p99 / 1e6);
+    }
+}
@@ -1,7 +1,18 @@
 package example.item43;
 
+import example.item09.BatchedOutput;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
  *  아이템 43. 람다보다는 메서드 참조(method reference)를 사용하라.
@@ -32,6 +43,13 @@ public class Item43 {
 
         System.out.println("sum = " + sum); // sum = 10
 
+        // 숫자가 아주 많다면 String 과 Integer 를 만들지 않고 바로 int 로 읽는다. (NumberParser 참고)
+        int parsedSum = nums.stream()
+                .mapToInt(s -> NumberParser.parseInt(s, 0, s.length()))
+                .sum();
+
+        System.out.println("parsedSum = " + parsedSum); // parsedSum = 10
+
         List<String> countryCodes = new ArrayList<>();
         countryCodes.add("kr");
         countryCodes.add("us");
@@ -41,7 +59,63 @@ public class Item43 {
                 .map(String::toUpperCase)  // 한정적(인스턴스)
                 .forEach(System.out::println);  // 정적
 
+        // 줄이 아주 많다면 모아서 출력하는 BatchedOutput 으로 바꿀 수 있다. out::println 은 한정적(인스턴스) 메서드 참조다.
+        try (BatchedOutput out = BatchedOutput.stdout()) {
+            countryCodes.stream()
+                    .map(String::toLowerCase)
+                    .forEach(out::println);
+        }
+
         // () -> new TreeMap<K, V>()  ---->  TreeMap<K, V>::new
         // len -> new int[len]        ---->  int[]::new
     }
+
+    @Test
+    public void number_parser_test() {
+        String[] inputs = {"0", "-0", "+7", "42", "-2147483648", "2147483647", "2147483648", "-2147483649",
+                "9223372036854775807", "-9223372036854775808", "9223372036854775808", "99999999999999999999",
+                "", "-", "+", "1a", " 1", "--1", "0x10"};
+        for (String input : inputs) {
+            byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+            assertSameResult(() -> Integer.parseInt(input), () -> NumberParser.parseInt(input, 0, input.length()));
+            assertSameResult(() -> Integer.parseInt(input), () -> NumberParser.parseInt(bytes, 0, bytes.length));
+            assertSameResult(() -> Long.parseLong(input), () -> NumberParser.parseLong(input, 0, input.length()));
+            assertSameResult(() -> Long.parseLong(input), () -> NumberParser.parseLong(bytes, 0, bytes.length));
+        }
+
+        String line = "sum=1234;";
+        assertEquals(1234, NumberParser.parseInt(line, 4, 8));  // 범위만 읽으므로 substring 이 필요 없다.
+    }
+
+    @Test
+    public void number_file_test() throws IOException {
+        Random random = new Random(42);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 3_000_000; i++) {  // 여러 조각으로 나뉠 만큼 큰 파일
+            numbers.add(Integer.toString(random.nextInt()));
+        }
+        Path file = Files.createTempFile("item43", ".txt");
+        try {
+            Files.writeString(file, String.join(random.nextBoolean() ? " " : "\n", numbers), StandardCharsets.US_ASCII);
+
+            int[] expected = numbers.stream().mapToInt(Integer::parseInt).toArray();
+            assertArrayEquals(expected, NumberParser.readInts(file));
+            assertEquals(numbers.stream().mapToLong(Long::parseLong).sum(), NumberParser.longs(file).sum());
+            assertArrayEquals(expected, NumberParser.ints(file).toArray());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameResult(LongSupplier expected, LongSupplier actual) {
+        Long expectedValue;
+        try {
+            expectedValue = expected.getAsLong();
+        } catch (NumberFormatException e) {
+            NumberFormatException thrown = assertThrows(NumberFormatException.class, actual::getAsLong);
+            assertEquals(e.getMessage(), thrown.getMessage());
+            return;
+        }
+        assertEquals(expectedValue, actual.getAsLong());
+    }
 }
@@ -0,0 +1,431 @@
+package example.item44;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+
+/*
+ *  SizedMap, MyLinkedHashMap 의 동시성 버전.
+ *
+ *  LinkedHashMap 을 Collections.synchronizedMap 으로 감싸면 접근 순서(access order)를 갱신하기 위해 읽기까지 전역 락을 잡게 된다.
+ *  이 클래스는 역할을 나눠서 락 경합을 없앤다.
+ *  - 데이터는 ConcurrentHashMap 에 저장한다. 조회는 락 없이 이루어지고, 쓰기는 ConcurrentHashMap 내부의 버킷 단위 락으로 분산된다.
+ *  - 접근 순서를 기록하는 이중 연결 리스트만 evictionLock 으로 보호한다.
+ *  - 조회는 스레드별로 나뉜 링 버퍼(readBuffers)에 "접근했다"는 사실만 남기고, 버퍼가 차면 락을 잡을 수 있는 스레드가 한꺼번에 반영한다.
+ *    버퍼가 가득 차 있으면 기록을 버린다. 접근 순서가 조금 부정확해질 뿐 데이터는 잃지 않는다.
+ *  - 추가/삭제는 writeBuffer 에 작업으로 쌓아두었다가 같은 방식으로 반영하고, 그 직후에 제거 함수를 적용한다.
+ *
+ *  가장 오래된 엔트리의 제거 여부는 기존과 똑같이 EldestEntryRemovalFunction(또는 BiPredicate)으로 결정한다.
+ *  다른 스레드가 반영을 대신하는 동안에는 size() 가 잠깐 한도를 넘을 수 있다.
+ *  entrySet() 의 엔트리와 제거 함수가 받는 eldest 는 setValue 로 값을 바꿀 수 있다. (맵에 그대로 반영되며, 접근 순서는 바꾸지 않는다.)
+ */
+class ConcurrentSizedMap<K, V> extends AbstractMap<K, V> {
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int NUMBER_OF_READ_BUFFERS = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 4);
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final EldestEntryRemovalFunction<K, V> removalFunction;
+
+    // evictionLock 으로 보호되는 접근 순서 리스트 (head 가 가장 오래된 엔트리)
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Node<K, V> head;
+    private Node<K, V> tail;
+
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentSizedMap(EldestEntryRemovalFunction<K, V> removalFunction) {
+        this.removalFunction = Objects.requireNonNull(removalFunction);
+        this.readBuffers = (ReadBuffer<K, V>[]) new ReadBuffer<?, ?>[NUMBER_OF_READ_BUFFERS];
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    /*
+     *  MyLinkedHashMap 과 같은 BiPredicate 로 만든다.
+     *  두 함수형 인터페이스의 시그니처가 같아서 생성자를 오버로딩하면 람다를 넘길 때 모호해지므로 정적 팩터리로 제공한다.
+     */
+    public static <K, V> ConcurrentSizedMap<K, V> withPredicate(BiPredicate<Map<K, V>, Map.Entry<K, V>> bp) {
+        Objects.requireNonNull(bp);
+        return new ConcurrentSizedMap<>(bp::test);
+    }
+
+    public static <K, V> ConcurrentSizedMap<K, V> withMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize 는 0 이상이어야 합니다.");
+        }
+        return new ConcurrentSizedMap<>((map, eldest) -> map.size() > maximumSize);
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+
+        Node<K, V> node = new Node<>(key, value);
+        while (true) {
+            Node<K, V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterWrite(() -> addToTail(node));
+                return null;
+            }
+            if (!prior.retired) {
+                V oldValue = prior.value;
+                prior.value = value;
+                afterRead(prior);
+                return oldValue;
+            }
+            // 제거되는 중인 노드라면 자리를 비울 때까지 다시 시도한다.
+            removeNode(prior);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        node.retired = true;
+        afterWrite(() -> unlink(node));
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        for (K key : data.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<Node<K, V>> it = data.values().iterator();
+                return new Iterator<>() {
+                    Node<K, V> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        current = it.next();
+                        return current;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException();
+                        }
+                        ConcurrentSizedMap.this.remove(current.key);
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return data.size();
+            }
+        };
+    }
+
+    public Stats stats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    private void afterRead(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[bufferIndex()];
+        if (buffer.offer(node)) {
+            tryToDrain();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        tryToDrain();
+    }
+
+    /*
+     *  락을 잡지 못하면 지금 락을 가진 스레드가 대신 반영하므로 기다리지 않고 돌아간다.
+     *  락을 놓은 뒤에 쌓인 작업이 있으면 다시 시도해서 작업이 남겨지지 않도록 한다.
+     */
+    private void tryToDrain() {
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                drainReadBuffers();
+                drainWriteBuffer();
+                evict();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+    }
+
+    private void drainWriteBuffer() {
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void evict() {
+        while (head != null) {
+            Node<K, V> eldest = head;
+            if (eldest.retired) {
+                unlink(eldest);  // remove 로 이미 빠졌고 unlink 작업만 아직 반영되지 않은 노드. 제거 함수에 묻지도, 세지도 않는다.
+                continue;
+            }
+            if (!removalFunction.remove(this, eldest)) {
+                return;
+            }
+            unlink(eldest);
+            if (removeNode(eldest)) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /*
+     *  맵에 node 자신이 있을 때만 지운다.
+     *  data.remove(key, node) 는 equals 로 비교하는데, Node.equals 는 키와 값만 보므로 같은 (키, 값)으로 새로 넣은 노드까지 지운다.
+     */
+    private boolean removeNode(Node<K, V> node) {
+        boolean[] removed = new boolean[1];
+        data.computeIfPresent(node.key, (key, current) -> {
+            if (current != node) {
+                return current;
+            }
+            node.retired = true;
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    // 이하 연결 리스트 조작은 evictionLock 을 잡은 상태에서만 호출한다.
+    private void addToTail(Node<K, V> node) {
+        if (node.retired || node.linked) {
+            return;
+        }
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        node.linked = true;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (!node.linked) {
+            return;
+        }
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+    }
+
+    private void moveToTail(Node<K, V> node) {
+        if (node.linked && node != tail) {
+            unlink(node);
+            addToTail(node);
+        }
+    }
+
+    private static int bufferIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (NUMBER_OF_READ_BUFFERS - 1);
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(Math.max(1, x - 1));
+    }
+
+    static final class Node<K, V> implements Map.Entry<K, V> {
+        final K key;
+        volatile V value;
+        volatile boolean retired;  // 맵에서 빠졌는지 여부
+
+        // evictionLock 으로 보호된다.
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean linked;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        // 이미 맵에서 빠진 엔트리라면 맵에는 반영되지 않는다. (Map.Entry.setValue 와 같다.)
+        @Override
+        public V setValue(V value) {
+            Objects.requireNonNull(value);
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return key.equals(e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /*
+     *  여러 스레드가 기록하고 락을 잡은 스레드 하나만 읽는 손실 허용(lossy) 링 버퍼.
+     *  offer 는 버퍼가 가득 찼을 때 true 를 반환해서 반영이 필요하다는 것을 알린다.
+     */
+    private static final class ReadBuffer<K, V> {
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCount = new AtomicLong();
+        private volatile long readCount;
+
+        boolean offer(Node<K, V> node) {
+            long w = writeCount.get();
+            if (w - readCount >= READ_BUFFER_SIZE) {
+                return true;
+            }
+            if (writeCount.compareAndSet(w, w + 1)) {
+                buffer.lazySet((int) (w & READ_BUFFER_MASK), node);
+                return w + 1 - readCount >= READ_BUFFER_SIZE;
+            }
+            return false;
+        }
+
+        void drainTo(ConcurrentSizedMap<K, V> map) {
+            long r = readCount;
+            long w = writeCount.get();
+            for (; r < w; r++) {
+                int index = (int) (r & READ_BUFFER_MASK);
+                Node<K, V> node = buffer.get(index);
+                if (node == null) {
+                    break;  // 자리만 잡고 아직 기록하지 않은 슬롯. 다음 반영 때 처리한다.
+                }
+                buffer.lazySet(index, null);
+                map.moveToTail(node);
+            }
+            readCount = r;
+        }
+    }
+
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long hitCount() {
+            return hitCount;
+        }
+
+        public long missCount() {
+            return missCount;
+        }
+
+        public long evictionCount() {
+            return evictionCount;
+        }
+
+        public double hitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hit=" + hitCount + ", miss=" + missCount + ", eviction=" + evictionCount
+                    + ", hitRate=" + hitRate() + "}";
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package example.item44;
+
+import java.util.Map;
+
+/*
+ *  직접 작성한 함수형 인터페이스. MyLinkedHashMapV1 과 ConcurrentSizedMap 이 가장 오래된 엔트리를 제거할지 결정할 때 쓴다.
+ */
+@FunctionalInterface
+interface EldestEntryRemovalFunction<T, U> {
+    boolean remove(Map<T, U> map, Map.Entry<T, U> eldest);
+}
@@ -0,0 +1,90 @@
+package example.item44;
+
+import java.util.Map;
+
+/*
+ *  EldestEntryRemovalFunction 에 접근 기록을 더한 교체 정책.
+ *
+ *  EldestEntryRemovalFunction 만으로는 "맵이 얼마나 찼는가"밖에 알 수 없어서 LRU 이상의 정책을 만들 수 없다.
+ *  PolicyLinkedHashMap 이 조회와 삽입을 정책에 알려주면, 정책은 그 기록을 바탕으로 가장 오래된 엔트리를 내보낼지 결정한다.
+ *  removeEldestEntry 의 규약대로 정책이 맵을 직접 수정했다면 false 를 반환해야 한다.
+ */
+interface EvictionPolicy<K, V> extends EldestEntryRemovalFunction<K, V> {
+
+    void recordAccess(K key);
+
+    default void recordInsertion(K key) {
+        recordAccess(key);
+    }
+
+    static <K, V> EvictionPolicy<K, V> lru(int maximumSize) {
+        return new LruPolicy<>(maximumSize);
+    }
+
+    static <K, V> EvictionPolicy<K, V> tinyLfu(int maximumSize) {
+        return new TinyLfuPolicy<>(maximumSize);
+    }
+}
+
+/*
+ *  기존 SizedMap 과 같은 순수 LRU. 접근 기록은 LinkedHashMap 의 접근 순서만으로 충분하다.
+ */
+class LruPolicy<K, V> implements EvictionPolicy<K, V> {
+    private final int maximumSize;
+
+    LruPolicy(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void recordAccess(K key) {
+    }
+
+    @Override
+    public boolean remove(Map<K, V> map, Map.Entry<K, V> eldest) {
+        return map.size() > maximumSize;
+    }
+}
+
+/*
+ *  TinyLFU 입장(admission) 정책.
+ *
+ *  LRU 는 한 번 스캔하고 지나가는 키들로 맵이 가득 차면 자주 쓰이던 엔트리까지 모두 밀려난다.
+ *  TinyLFU 는 맵이 가득 찼을 때 새로 들어온 키(candidate)와 가장 오래된 키(victim)의 최근 빈도를 비교한다.
+ *  새 키가 더 자주 쓰였을 때만 victim 을 내보내고, 그렇지 않으면 새 키를 다시 빼서 기존 엔트리를 지킨다.
+ */
+class TinyLfuPolicy<K, V> implements EvictionPolicy<K, V> {
+    private final int maximumSize;
+    private final FrequencySketch<K> sketch;
+    private K candidate;
+
+    TinyLfuPolicy(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.sketch = new FrequencySketch<>(maximumSize);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public void recordInsertion(K key) {
+        sketch.increment(key);
+        candidate = key;
+    }
+
+    @Override
+    public boolean remove(Map<K, V> map, Map.Entry<K, V> eldest) {
+        if (map.size() <= maximumSize) {
+            return false;
+        }
+        K victim = eldest.getKey();
+        if (candidate == null || candidate.equals(victim)
+                || sketch.frequency(candidate) > sketch.frequency(victim)) {
+            return true;
+        }
+        map.remove(candidate);  // 맵을 직접 수정했으므로 false 를 반환한다.
+        return false;
+    }
+}
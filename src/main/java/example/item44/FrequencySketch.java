@@ -0,0 +1,83 @@
+package example.item44;
+
+/*
+ *  키의 최근 접근 빈도를 근사하는 Count-Min 스케치.
+ *
+ *  - 카운터는 4비트(최대 15)라서 long 하나에 16개가 들어간다. 키마다 4개의 카운터를 증가시키고, 빈도는 그중 최솟값으로 추정한다.
+ *  - 증가 횟수가 sampleSize 에 도달하면 모든 카운터를 절반으로 줄인다(aging). 오래전에 인기 있던 키가 영원히 자리를 차지하지 않게 해준다.
+ *  - 키를 저장하지 않으므로 맵 크기에 비례하는 아주 작은 메모리만 사용한다. (maximumSize 당 약 8바이트)
+ */
+final class FrequencySketch<K> {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(int maximumSize) {
+        int length = ceilingPowerOfTwo(Math.max(maximumSize, 16));
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * length;
+    }
+
+    int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = indexHash(hash, i);
+            int index = (int) h & tableMask;
+            int offset = counterOffset(h);
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(K key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = indexHash(hash, i);
+            int index = (int) h & tableMask;
+            int offset = counterOffset(h);
+            if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    // 모든 카운터를 절반으로 줄인다. 4비트 카운터를 한 칸씩 밀고, 옆 카운터에서 넘어온 비트는 마스크로 지운다.
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private static long indexHash(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h + (h >>> 32);
+    }
+
+    // 상위 비트로 long 안의 16개 카운터 중 하나를 고른다.
+    private static int counterOffset(long h) {
+        return (int) ((h >>> 40) & 15) << 2;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
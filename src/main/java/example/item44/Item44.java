@@ -1,9 +1,19 @@
 package example.item44;
 
+import example.item06.IntIntLruMap;
+import org.junit.jupiter.api.Test;
+
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.*;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /*
  *  아이템 44. 표준 함수형 인터페이스를 사용하라.
  *
@@ -70,6 +80,101 @@ public class Item44 {
             standardFunctionalMap.put(i, i);
         }
         System.out.println(standardFunctionalMap.size()); // 4
+
+        // 여러 스레드에서 함께 쓰는 경우 - 같은 제거 함수를 그대로 넘긴다.
+        ConcurrentSizedMap<Integer, Integer> concurrentMap =
+                ConcurrentSizedMap.withPredicate((map, eldest) -> map.size() > 100);
+        for (int i = 0; i < 1000; i++) {
+            concurrentMap.put(i, i);
+        }
+        System.out.println(concurrentMap.size()); // 100
+
+        // 키와 값이 int 라면 박싱 없는 IntIntLruMap 을 SizedMap 대신 쓸 수 있다. (false: SizedMap 처럼 넣은 순서대로 버린다.)
+        IntIntLruMap primitiveMap = new IntIntLruMap(100, false);
+        for (int i = 0; i < 1000; i++) {
+            primitiveMap.put(i, i);
+        }
+        System.out.println(primitiveMap.size()); // 100
+    }
+
+    @Test
+    public void concurrent_sized_map_test() throws InterruptedException {
+        ConcurrentSizedMap<Integer, Integer> map = ConcurrentSizedMap.withMaximumSize(100);
+        int threads = 8;
+        int operations = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            executor.execute(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < operations; i++) {
+                    int key = random.nextInt(200);
+                    if (map.get(key) == null) {
+                        map.put(key, key);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        ConcurrentSizedMap.Stats stats = map.stats();
+        assertTrue(map.size() <= 100);  // 모든 쓰기가 반영된 뒤에는 한도를 넘지 않는다.
+        assertEquals((long) threads * operations, stats.hitCount() + stats.missCount());
+        assertTrue(stats.evictionCount() > 0);
+        map.forEach((key, value) -> assertEquals(key, value));
+
+        // replaceAll 은 엔트리의 setValue 로 값을 바꾼다.
+        map.replaceAll((key, value) -> value + 1);
+        map.forEach((key, value) -> assertEquals(key + 1, value));
+    }
+
+    /*
+     *  제거 함수가 가장 오래된 노드 (0, 0)을 보고 있는 사이에 다른 스레드가 키 0 을 지우고 같은 (0, 0)을 다시 넣는다.
+     *  새로 넣은 노드는 옛 노드와 equals 이지만 다른 노드이므로 제거되면 안 된다.
+     */
+    @Test
+    public void concurrent_sized_map_evicts_by_identity_test() throws InterruptedException {
+        AtomicBoolean raced = new AtomicBoolean();
+        ConcurrentSizedMap<Integer, Integer> map = new ConcurrentSizedMap<>((m, eldest) -> {
+            if (m.size() > 2 && eldest.getKey() == 0 && raced.compareAndSet(false, true)) {
+                Thread writer = new Thread(() -> {
+                    m.remove(0);
+                    m.put(0, 0);
+                });
+                writer.start();
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return m.size() > 2;
+        });
+        map.put(0, 0);
+        map.put(1, 1);
+        map.put(2, 2);
+
+        assertTrue(raced.get());
+        assertEquals(Integer.valueOf(0), map.get(0));
+        assertEquals(Map.of(0, 0, 2, 2), new HashMap<>(map));
+        assertEquals(1, map.stats().evictionCount());
+
+        // 다시 넣은 노드가 접근 순서 리스트에도 들어가 있어서, 그다음 제거 대상이 된다.
+        map.put(3, 3);
+        assertEquals(Map.of(0, 0, 3, 3), new HashMap<>(map));
+        assertEquals(2, map.stats().evictionCount());
+    }
+
+    @Test
+    public void tiny_lfu_scan_resistance_test() {
+        int[] trace = TraceReplay.scanResistantTrace(200_000, 5_000, 42);
+
+        double lru = TraceReplay.hitRate(trace, EvictionPolicy.lru(500));
+        double tinyLfu = TraceReplay.hitRate(trace, EvictionPolicy.tinyLfu(500));
+
+        assertTrue(tinyLfu > lru);  // 스캔이 섞인 trace 에서는 TinyLFU 의 적중률이 더 높다.
     }
 }
 
@@ -90,13 +195,8 @@ class MyLinkedHashMap<K, V> extends LinkedHashMap<K, V> {
 }
 
 /*
- *  직접 작성한 함수형 인터페이스를 이용해 구현해 보았다.
+ *  직접 작성한 함수형 인터페이스(EldestEntryRemovalFunction)를 이용해 구현해 보았다.
  */
-@FunctionalInterface
-interface EldestEntryRemovalFunction<T, U> {
-    boolean remove(Map<T, U> map, Map.Entry<T, U> eldest);
-}
-
 class MyLinkedHashMapV1<K, V> extends LinkedHashMap<K, V> {
     private final EldestEntryRemovalFunction<K, V> ef;
 
@@ -110,3 +210,39 @@ class MyLinkedHashMapV1<K, V> extends LinkedHashMap<K, V> {
     }
 }
 
+
+/*
+ *  EvictionPolicy 를 꽂아 쓰는 LinkedHashMap.
+ *  접근 순서(accessOrder = true)로 정렬해서 가장 오래된 엔트리가 LRU 기준의 victim 이 되도록 하고,
+ *  조회와 삽입을 정책에 알려서 LRU 이외의 정책(TinyLFU 등)도 같은 제거 함수 자리에서 동작하게 한다.
+ */
+class PolicyLinkedHashMap<K, V> extends LinkedHashMap<K, V> {
+    private final EvictionPolicy<K, V> policy;
+
+    PolicyLinkedHashMap(EvictionPolicy<K, V> policy) {
+        super(16, 0.75f, true);
+        this.policy = policy;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = super.get(key);
+        if (value != null) {
+            @SuppressWarnings("unchecked")
+            K k = (K) key;  // 맵에 들어있던 키이므로 K 타입이다.
+            policy.recordAccess(k);
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        policy.recordInsertion(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return policy.remove(this, eldest);
+    }
+}
@@ -0,0 +1,60 @@
+package example.item44;
+
+import java.util.Random;
+
+/*
+ *  접근 기록(trace)을 PolicyLinkedHashMap 에 그대로 재생해서 교체 정책별 적중률을 비교한다.
+ *  조회에 실패하면 값을 불러왔다고 가정하고 put 한다.
+ *
+ *  기본 trace 는 Zipf 분포를 따르는 인기 키 사이사이에 한 번만 쓰이는 키를 연속으로 훑는 스캔을 섞은 것이다.
+ *  Item44.main 의 put 루프가 바로 이런 스캔이다.
+ */
+class TraceReplay {
+
+    public static void main(String[] args) {
+        int maximumSize = 1000;
+        int[] trace = scanResistantTrace(1_000_000, 10_000, 42);
+
+        System.out.println("LRU     hit rate = " + hitRate(trace, EvictionPolicy.lru(maximumSize)));
+        System.out.println("TinyLFU hit rate = " + hitRate(trace, EvictionPolicy.tinyLfu(maximumSize)));
+    }
+
+    static double hitRate(int[] trace, EvictionPolicy<Integer, Integer> policy) {
+        PolicyLinkedHashMap<Integer, Integer> map = new PolicyLinkedHashMap<>(policy);
+        long hits = 0;
+        for (int key : trace) {
+            if (map.get(key) != null) {
+                hits++;
+            } else {
+                map.put(key, key);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    /*
+     *  length 개의 접근 중 약 절반은 vocabulary 개의 인기 키(Zipf 분포)이고, 나머지는 겹치지 않는 스캔 키이다.
+     */
+    static int[] scanResistantTrace(int length, int vocabulary, long seed) {
+        Random random = new Random(seed);
+        int[] trace = new int[length];
+        int scanKey = vocabulary;
+        int i = 0;
+        while (i < length) {
+            int hot = Math.min(length - i, 1 + random.nextInt(2000));
+            for (int j = 0; j < hot; j++) {
+                trace[i++] = skewed(random, vocabulary);
+            }
+            int scan = Math.min(length - i, 1 + random.nextInt(2000));
+            for (int j = 0; j < scan; j++) {
+                trace[i++] = scanKey++;
+            }
+        }
+        return trace;
+    }
+
+    // 0 에 가까운 키일수록 자주 나오는 [0, n) 범위의 키
+    private static int skewed(Random random, int n) {
+        return (int) Math.pow(n, random.nextDouble()) - 1;
+    }
+}
@@ -0,0 +1,64 @@
+package example.item46;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ *  공백으로 구분된 큰 텍스트 파일을 여러 조각으로 나눠 병렬로 읽을 때 조각의 경계를 정한다. (MappedWordCounter, NumberParser)
+ *
+ *  경계는 chunkSize 마다 그 뒤의 첫 공백 바이트 바로 다음으로 맞춘다. 토큰이 두 조각에 걸쳐 잘리는 일이 없다.
+ *  UTF-8 의 멀티바이트 문자에는 ASCII 바이트가 들어있지 않으므로 문자가 잘리는 일도 없다.
+ */
+public final class FileChunks {
+    private static final int PROBE_SIZE = 4096;
+
+    private FileChunks() {}
+
+    /*
+     *  조각 i 는 [bounds[i], bounds[i + 1]) 이다. 빈 파일이면 {0, 0} 이다.
+     */
+    public static long[] bounds(FileChannel channel, long chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 는 0 보다 커야 합니다: " + chunkSize);
+        }
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = nextWhitespace(channel, position, probe);
+            if (boundary >= size) {
+                break;
+            }
+            bounds.add(boundary + 1);
+            position = boundary + 1 + chunkSize;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Character.isWhitespace 가 true 인 ASCII 문자: \t \n \u000B \f \r, 0x1C~0x1F, 공백
+    public static boolean isAsciiWhitespace(byte b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+
+    private static long nextWhitespace(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (isAsciiWhitespace(probe.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+    }
+}
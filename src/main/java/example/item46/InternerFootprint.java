@@ -0,0 +1,51 @@
+package example.item46;
+
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+/*
+ *  토큰 수백만 개의 소문자 형태를 들고 있을 때의 힙 사용량을 toLowerCase 와 TokenInterner 로 비교한다.
+ *
+ *  java example.item46.InternerFootprint [토큰 수] [어휘 수]   (기본 5000000 100000)
+ *
+ *  토큰은 Zipf 분포와 비슷하게 앞쪽 단어가 자주 나오고, 절반은 첫 글자가 대문자다.
+ *  소문자 토큰을 String[] 로 들고 있는 동안 System.gc() 뒤의 힙 사용량에서 토큰을 만들기 전의 사용량을 뺀다. (배열 자체의 크기도 포함된다.)
+ */
+final class InternerFootprint {
+
+    public static void main(String[] args) {
+        int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int vocabulary = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Random random = new Random(42);
+        String[] words = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            int rank = (int) Math.pow(vocabulary, random.nextDouble()) - 1;
+            words[i] = (rank % 2 == 0 ? "Word" : "word") + rank;
+        }
+        TokenInterner interner = new TokenInterner(vocabulary * 2);
+
+        report("toLowerCase", words, String::toLowerCase);
+        report("TokenInterner", words, interner::lowerCase);
+    }
+
+    private static void report(String name, String[] words, UnaryOperator<String> lowerCase) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        String[] lower = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            lower[i] = lowerCase.apply(words[i]);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long retained = usedHeap() - before;
+        System.out.printf("%-14s %,d tokens in %d ms, retained %,d KB (%.1f bytes/token)%n",
+                name, lower.length, elapsedMillis, retained >> 10, (double) retained / lower.length);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,13 +1,23 @@
 package example.item46;
 
+import example.item09.BatchedOutput;
+import org.junit.jupiter.api.Test;
+
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /*
  *  아이템 46. 스트림에서는 부작용 없는 함수를 사용하라.
@@ -30,42 +40,256 @@ import static java.util.stream.Collectors.*;
  */
 public class Item46 {
 
-    public static void main(String[] args) throws FileNotFoundException {
+    /*
+     *  args[0] : 단어 파일 경로
+     *  args[1] : "mmap" 을 넘기면 파일을 메모리 매핑해서 병렬로 센다. (큰 파일용, MappedWordCounter 참고)
+     *            "heavy" 를 넘기면 빈도표를 만들지 않고 자주 나오는 단어만 근사해서 출력한다. (어휘가 힙에 다 들어가지 않을 때)
+     */
+    public static void main(String[] args) throws IOException {
         File file = new File(args[0]);
-        Stream<String> words = new Scanner(file).tokens();
+        String mode = args.length > 1 ? args[1] : "";
+
+        // 단어가 수백만 개면 System.out.println 이 병목이 되므로 모아서 출력한다. (BatchedOutput 참고)
+        try (BatchedOutput out = BatchedOutput.stdout()) {
+            if (mode.equals("heavy")) {
+                TokenInterner interner = new TokenInterner();
+                SpaceSaving<String> heavyHitters = new Scanner(file).tokens()
+                        .map(interner::lowerCase)
+                        .collect(SpaceSaving.collector(10_000));
+                heavyHitters.topK(5).forEach(e -> out.print(e.getKey()).print(" : ").println(e.getValue()));
+                return;
+            }
+            boolean mapped = mode.equals("mmap");
+
+            // groupingBy
+            Map<String, Long> frequency = mapped
+                    ? MappedWordCounter.frequency(file.toPath())
+                    : frequency(new Scanner(file).tokens(), new TokenInterner()); // key: 문자열, value: 문자열 빈도수
+
+            frequency.forEach((key, value) -> out.print(key).print(" : ").println(value));
+
+            // toList
+            List<String> topTenFreqWord = topWords(frequency, 5);  // 빈도수가 가장 높은 5개의 단어를 수집하여 List로 변환
+
+            topTenFreqWord.forEach(out::println);
+
+            // toMap
+            List<String> list = new ArrayList<>();
+            list.add("java");
+            list.add("javascript");
+            list.add("python");
+
+            Map<String, Integer> map = list.stream()
+                    .collect(toMap(String::toLowerCase, String::length)); // key: 문자열, value: 문자열의 길이
+
+            map.forEach((key, value) -> out.print(key).print(" : ").println(value));
+
+            // joining
+            Stream<String> words2 = new Scanner(file).tokens();
+
+            String join = words2.collect(joining(", "));
+
+            out.println(join);
+        }
+    }
+
+    @Test
+    public void mapped_word_counter_test() throws IOException {
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(42);
+        String[] words = {"Java", "JAVA", "java", "Stream", "λ람다", "Straße", "ÉCOLE", "x"};
+        String[] separators = {" ", "\n", "\t", "\r\n", "  ", "\u2003", "\u000B"};
+        for (int i = 0; i < 500_000; i++) {
+            text.append(words[random.nextInt(words.length)]).append(separators[random.nextInt(separators.length)]);
+        }
+        Path file = Files.createTempFile("item46", ".txt");
+        try {
+            Files.writeString(file, text, StandardCharsets.UTF_8);
+
+            Map<String, Long> expected = frequency(new Scanner(file, StandardCharsets.UTF_8).tokens());
+            assertEquals(expected, MappedWordCounter.frequency(file));
+
+            // 기본 로케일은 호출할 때마다 확인한다. (터키어에서는 "TITLE" 이 "tıtle" 이 된다.)
+            Files.writeString(file, "TITLE Title title", StandardCharsets.UTF_8);
+            Locale previous = Locale.getDefault();
+            try {
+                Locale.setDefault(new Locale("tr", "TR"));
+                assertEquals(Map.of("tıtle", 1L, "title", 2L), MappedWordCounter.frequency(file));
+            } finally {
+                Locale.setDefault(previous);
+            }
+            assertEquals(Map.of("title", 3L), MappedWordCounter.frequency(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
 
-        // groupingBy
-        Map<String, Long> frequency =
-                words.collect(groupingBy(String::toLowerCase, counting())); // key: 문자열, value: 문자열 빈도수
+    @Test
+    public void token_interner_test() {
+        TokenInterner interner = new TokenInterner(64);
+        String java = interner.lowerCase("Java");
 
-        frequency.forEach((key, value) -> System.out.println(key + " : " + value));
+        assertEquals("java", java);
+        assertSame(java, interner.lowerCase("JAVA"));
+        assertSame(java, interner.lowerCase(new StringBuilder("I love jAvA!"), 7, 11));
+        assertSame(java, interner.lowerCase("xJaVaX".getBytes(StandardCharsets.UTF_8), 1, 5));
+        assertSame(java, interner.lowerCase(ByteBuffer.wrap("JAVA".getBytes(StandardCharsets.US_ASCII)), 0, 4));
+        assertEquals(64, interner.capacity());
+        assertEquals(4, new TokenInterner(1).capacity());
 
-        // toList
-        List<String> topTenFreqWord = frequency.keySet()
+        // 글자 하나씩 바꾸면 toLowerCase 와 달라지는 경우
+        for (String token : new String[]{"ΟΔΟΣ", "İstanbul", "Straße", "ÉCOLE", "λ람다", "𐐀", ""}) {
+            assertEquals(token.toLowerCase(), interner.lowerCase(token), token);
+            assertSame(interner.lowerCase(token), interner.lowerCase(token), token);
+            assertEquals(token.toLowerCase(), interner.lowerCase(token.getBytes(StandardCharsets.UTF_8), 0,
+                    token.getBytes(StandardCharsets.UTF_8).length), token);
+        }
+
+        // ASCII 가 아닌 UTF-8 도 디코딩한 String 없이 같은 인스턴스를 찾는다.
+        String word = interner.lowerCase("ÄRGER자바");
+        byte[] utf8 = "xÄrger자바x".getBytes(StandardCharsets.UTF_8);
+        assertEquals("ärger자바", word);
+        assertSame(word, interner.lowerCase(utf8, 1, utf8.length - 1));
+        assertSame(word, interner.lowerCase(ByteBuffer.wrap(utf8), 1, utf8.length - 1));
+        // 잘못된 UTF-8 은 new String(bytes, UTF_8) 과 같이 대체 문자로 디코딩한다.
+        byte[] malformed = {'A', (byte) 0xC3, 'B', (byte) 0xE2, (byte) 0x82};
+        assertEquals(new String(malformed, StandardCharsets.UTF_8).toLowerCase(), interner.lowerCase(malformed, 0, malformed.length));
+
+        // 기본 로케일이 바뀌면 그 로케일의 규칙을 따른다.
+        Locale previous = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals("TITLE".toLowerCase(), interner.lowerCase("TITLE"));
+            assertEquals("tıtle", interner.lowerCase("TITLE".getBytes(StandardCharsets.US_ASCII), 0, 5));
+        } finally {
+            Locale.setDefault(previous);
+        }
+        assertEquals("title", interner.lowerCase("TITLE"));
+    }
+
+    @Test
+    public void token_interner_is_bounded_and_concurrent_test() throws InterruptedException {
+        TokenInterner interner = new TokenInterner(256);
+        List<String> words = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String word = "Word" + (int) Math.pow(5_000, random.nextDouble());  // 어휘(5000)가 용량(256)보다 많다.
+            words.add(random.nextBoolean() ? word : word.toUpperCase());
+        }
+        Map<String, Long> expected = frequency(words.stream());
+
+        Thread[] threads = new Thread[4];
+        List<Map<String, Long>> results = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> results.add(frequency(words.stream(), interner)));
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length, results.size());
+        results.forEach(result -> assertEquals(expected, result));
+        assertEquals(expected, frequency(words.parallelStream(), interner));
+    }
+
+    @Test
+    public void top_words_test() {
+        Random random = new Random(42);
+        Map<String, Long> frequency = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            frequency.put("word" + i, (long) random.nextInt(1_000_000));
+        }
+
+        List<Long> expected = frequency.keySet()
                 .stream()
                 .sorted(comparing(frequency::get).reversed())
                 .limit(5)
-                .collect(Collectors.toList());  // 빈도수가 가장 높은 5개의 단어를 수집하여 List로 변환
+                .map(frequency::get)
+                .collect(Collectors.toList());
+        List<Long> actual = topWords(frequency, 5).stream()
+                .map(frequency::get)
+                .collect(Collectors.toList());
 
-        topTenFreqWord.forEach(System.out::println);
+        assertEquals(expected, actual);
+    }
 
-        // toMap
-        List<String> list = new ArrayList<>();
-        list.add("java");
-        list.add("javascript");
-        list.add("python");
+    @Test
+    public void space_saving_test() {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            words.add("word" + (int) Math.pow(50_000, random.nextDouble()));  // 앞쪽 단어일수록 자주 나온다.
+        }
+        Map<String, Long> exact = frequency(words.stream());
+        SpaceSaving<String> summary = words.stream().collect(SpaceSaving.collector(1_000));
 
-        Map<String, Integer> map = list.stream()
-                .collect(toMap(String::toLowerCase, String::length)); // key: 문자열, value: 문자열의 길이
+        for (Map.Entry<String, Long> e : summary.topK(5)) {
+            long count = exact.get(e.getKey());
+            assertTrue(e.getValue() - summary.error(e.getKey()) <= count && count <= e.getValue());
+        }
+        assertEquals(topWords(exact, 3), summary.topK(3).stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
+
+    /*
+     *  병렬 스트림은 조각마다 만든 요약을 merge 로 합친다. 합친 뒤에도 추정 빈도는 실제 빈도 이상이고, 오차를 빼면 이하이다.
+     */
+    @Test
+    public void space_saving_parallel_test() {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            words.add("word" + (int) Math.pow(50_000, random.nextDouble()));
+        }
+        Map<String, Long> exact = frequency(words.stream());
+        SpaceSaving<String> summary = words.parallelStream().collect(SpaceSaving.collector(500));
 
-        map.forEach((key, value) -> System.out.println(key + " : " + value));
+        for (Map.Entry<String, Long> e : summary.topK(500)) {
+            long count = exact.get(e.getKey());
+            assertTrue(count <= e.getValue(), e.getKey());
+            assertTrue(e.getValue() - summary.error(e.getKey()) <= count, e.getKey());
+        }
+        // 전체의 1/capacity 보다 자주 나온 단어는 반드시 남아 있다.
+        exact.forEach((word, count) -> {
+            if (count > words.size() / 500) {
+                assertTrue(summary.estimate(word) >= count, word);
+            }
+        });
+
+        // 순서대로 나눈 두 요약을 직접 합쳐도 같다.
+        SpaceSaving<String> left = new SpaceSaving<>(100);
+        SpaceSaving<String> right = new SpaceSaving<>(100);
+        words.subList(0, words.size() / 2).forEach(left::add);
+        words.subList(words.size() / 2, words.size()).forEach(right::add);
+        SpaceSaving<String> merged = left.merge(right);
+        for (Map.Entry<String, Long> e : merged.topK(100)) {
+            long count = exact.get(e.getKey());
+            assertTrue(e.getValue() - merged.error(e.getKey()) <= count && count <= e.getValue(), e.getKey());
+        }
+        assertEquals(topWords(exact, 3), merged.topK(3).stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
 
-        // joining
-        Stream<String> words2 = new Scanner(file).tokens();
+    static Map<String, Long> frequency(Stream<String> words) {
+        return words.collect(groupingBy(String::toLowerCase, counting()));
+    }
 
-        String join = words2.collect(joining(", "));
+    /*
+     *  대문자가 섞인 토큰마다 toLowerCase 로 String 을 새로 만들지 않고, 인터너가 이미 만든 소문자 String 을 찾아 쓴다. (TokenInterner 참고)
+     */
+    static Map<String, Long> frequency(Stream<String> words, TokenInterner interner) {
+        return words.collect(groupingBy(interner::lowerCase, counting()));
+    }
 
-        System.out.println(join);
+    /*
+     *  keySet().stream().sorted(comparing(frequency::get).reversed()).limit(k) 는 전체를 정렬하고 비교할 때마다 맵을 조회한다.
+     *  엔트리를 그대로 크기 k의 힙에 넣으면 O(n log k)로 끝난다. (빈도가 같은 단어끼리의 순서는 정해져 있지 않다.)
+     */
+    static List<String> topWords(Map<String, Long> frequency, int k) {
+        return frequency.entrySet()
+                .stream()
+                .collect(TopK.topK(k, Map.Entry.comparingByValue()))
+                .stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
     }
 
 }
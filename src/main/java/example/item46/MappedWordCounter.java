@@ -0,0 +1,221 @@
+package example.item46;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static example.item46.FileChunks.isAsciiWhitespace;
+
+/*
+ *  Item46 의 단어 빈도표를 큰 파일에서 빠르게 만드는 입력 방식.
+ *
+ *  new Scanner(file).tokens() 는 정규식으로 토큰을 자르고, 토큰마다 String 을 만든 뒤 toLowerCase 로 또 하나를 만든다. 게다가 한 스레드에서만 돈다.
+ *  여기서는 파일을 FileChannel.map 으로 메모리에 매핑하고, 공백 위치에서 여러 조각(chunk)으로 나눠 병렬로 센다.
+ *  - 조각 안에서는 바이트를 직접 읽어 ASCII 소문자로 바꾸고, 바이트 배열 그대로 해시 테이블에서 찾는다. 토큰마다 String 을 만들지 않는다.
+ *  - String 은 조각마다 서로 다른 단어당 한 번만 만들어지고, 조각끼리는 TokenInterner 로 같은 인스턴스를 함께 쓴다.
+ *  - ASCII 가 아닌 바이트가 섞인 토큰은 UTF-8 로 디코딩해서 String.toLowerCase 를 그대로 적용하므로 결과는
+ *    groupingBy(String::toLowerCase, counting()) 와 같다. (파일은 UTF-8 이라고 가정한다.)
+ */
+final class MappedWordCounter {
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private MappedWordCounter() {}
+
+    static Map<String, Long> frequency(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = FileChunks.bounds(channel, chunkSize(channel));
+            TokenInterner interner = new TokenInterner();  // 조각마다 만든 맵이 같은 단어의 String 을 함께 쓴다.
+            // 터키어처럼 ASCII 대문자의 소문자 규칙이 다른 로케일에서는 바이트 단위 변환을 쓰지 않는다.
+            // TokenInterner 처럼 기본 로케일은 호출할 때마다 확인한다. 조각마다 다르게 보지 않도록 한 번만 읽어서 넘긴다.
+            boolean asciiLowerCase = TokenInterner.localeSafe();
+            return IntStream.range(0, bounds.length - 1)
+                    .parallel()
+                    .mapToObj(i -> countChunk(channel, bounds[i], bounds[i + 1], asciiLowerCase, interner))
+                    .reduce(MappedWordCounter::merge)
+                    .orElseGet(HashMap::new);
+        }
+    }
+
+    // 코어마다 조각이 4 개쯤 돌아가도록 나누되, 한 조각은 1MB ~ 64MB 로 한다.
+    private static long chunkSize(FileChannel channel) throws IOException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        return Math.max(1024 * 1024, Math.min(MAX_CHUNK_SIZE, channel.size() / (parallelism * 4L) + 1));
+    }
+
+    private static Map<String, Long> countChunk(FileChannel channel, long start, long end, boolean asciiLowerCase,
+                                                TokenInterner interner) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        TokenTable table = new TokenTable();
+        Map<String, Long> decoded = new HashMap<>();  // ASCII 가 아닌 토큰
+        int limit = buffer.limit();
+        int i = 0;
+        while (i < limit) {
+            while (i < limit && isAsciiWhitespace(buffer.get(i))) {
+                i++;
+            }
+            int tokenStart = i;
+            boolean ascii = true;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (isAsciiWhitespace(b)) {
+                    break;
+                }
+                ascii &= b >= 0;
+                i++;
+            }
+            if (i > tokenStart) {
+                if (ascii && asciiLowerCase) {
+                    table.add(buffer, tokenStart, i);
+                } else {
+                    countDecoded(buffer, tokenStart, i, decoded, interner);
+                }
+            }
+        }
+
+        Map<String, Long> result = table.toMap(interner);
+        decoded.forEach((word, count) -> result.merge(word, count, Long::sum));
+        return result;
+    }
+
+    /*
+     *  Scanner 의 기본 구분자는 \p{javaWhitespace}+ 이므로 ASCII 가 아닌 공백 문자(예: U+2003)로도 토큰이 나뉜다.
+     */
+    private static void countDecoded(ByteBuffer buffer, int start, int end, Map<String, Long> counts,
+                                     TokenInterner interner) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int tokenStart = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i > tokenStart) {
+                counts.merge(interner.lowerCase(text, tokenStart, i), 1L, Long::sum);
+            }
+        }
+    }
+
+    private static Map<String, Long> merge(Map<String, Long> left, Map<String, Long> right) {
+        if (left.size() < right.size()) {
+            Map<String, Long> tmp = left;
+            left = right;
+            right = tmp;
+        }
+        Map<String, Long> result = left;
+        right.forEach((word, count) -> result.merge(word, count, Long::sum));
+        return result;
+    }
+
+    /*
+     *  소문자로 바꾼 토큰의 바이트를 arena 에 이어 붙여 저장하는 선형 탐사(linear probing) 해시 테이블.
+     */
+    private static final class TokenTable {
+        private byte[] arena = new byte[1 << 16];
+        private int arenaSize;
+        private byte[] scratch = new byte[64];
+
+        private int[] offsets = new int[1 << 10];
+        private int[] lengths = new int[1 << 10];
+        private int[] hashes = new int[1 << 10];
+        private long[] counts = new long[1 << 10];
+        private int size;
+
+        void add(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(start + i);
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                scratch[i] = b;
+                hash = 31 * hash + b;
+            }
+
+            int mask = counts.length - 1;
+            int slot = mix(hash) & mask;
+            while (counts[slot] != 0) {
+                if (hashes[slot] == hash && lengths[slot] == length
+                        && Arrays.equals(arena, offsets[slot], offsets[slot] + length, scratch, 0, length)) {
+                    counts[slot]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (arena.length - arenaSize < length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+            }
+            System.arraycopy(scratch, 0, arena, arenaSize, length);
+            offsets[slot] = arenaSize;
+            lengths[slot] = length;
+            hashes[slot] = hash;
+            counts[slot] = 1;
+            arenaSize += length;
+
+            if (++size * 2 > counts.length) {
+                resize();
+            }
+        }
+
+        Map<String, Long> toMap(TokenInterner interner) {
+            Map<String, Long> map = new HashMap<>(size * 4 / 3 + 1);
+            ByteBuffer words = ByteBuffer.wrap(arena);
+            for (int slot = 0; slot < counts.length; slot++) {
+                if (counts[slot] != 0) {
+                    map.put(interner.lowerCase(words, offsets[slot], offsets[slot] + lengths[slot]), counts[slot]);
+                }
+            }
+            return map;
+        }
+
+        private void resize() {
+            int[] oldOffsets = offsets, oldLengths = lengths, oldHashes = hashes;
+            long[] oldCounts = counts;
+            int capacity = oldCounts.length * 2;
+            offsets = new int[capacity];
+            lengths = new int[capacity];
+            hashes = new int[capacity];
+            counts = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldCounts.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int slot = mix(oldHashes[i]) & mask;
+                    while (counts[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    offsets[slot] = oldOffsets[i];
+                    lengths[slot] = oldLengths[i];
+                    hashes[slot] = oldHashes[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
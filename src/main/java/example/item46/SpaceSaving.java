@@ -0,0 +1,184 @@
+package example.item46;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+/*
+ *  Space-Saving 알고리즘으로 자주 나오는 원소(heavy hitter)를 근사하는 요약 구조.
+ *
+ *  전체 빈도표를 만들지 않고 capacity 개의 카운터만 유지한다.
+ *  - 추적 중인 원소가 나오면 카운터를 올린다.
+ *  - 새 원소가 나왔는데 자리가 없으면 가장 작은 카운터(min)를 빼앗고, 카운트를 min + 1, 오차(error)를 min 으로 기록한다.
+ *  실제 빈도는 항상 [count - error, count] 범위 안에 있고, 실제 빈도가 (전체 원소 수 / capacity)보다 큰 원소는 반드시 남아 있다.
+ *  카운터는 카운트 기준 최소 힙으로 관리해서 갱신이 O(log capacity)이다.
+ */
+final class SpaceSaving<T> {
+    private final int capacity;
+    private final Map<T, Counter<T>> counters;
+    private final Counter<T>[] heap;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 는 1 이상이어야 합니다.");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+        this.heap = (Counter<T>[]) new Counter<?>[capacity];
+    }
+
+    /*
+     *  병렬 스트림에서는 조각마다 만든 요약을 merge 로 합친다. 합친 요약도 같은 보장([count - error, count])을 지킨다.
+     */
+    static <T> Collector<T, ?, SpaceSaving<T>> collector(int capacity) {
+        return Collector.of(() -> new SpaceSaving<T>(capacity), SpaceSaving::add, SpaceSaving::merge);
+    }
+
+    void add(T item) {
+        add(item, 1, 0);
+    }
+
+    private void add(T item, long count, long error) {
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            counter.error += error;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>(item, count, error);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(item, counter);
+            siftUp(counter.index);
+            return;
+        }
+        // 가장 작은 카운터를 새 원소에 넘겨준다.
+        counter = heap[0];
+        counters.remove(counter.item);
+        long min = counter.count;
+        counter.item = item;
+        counter.count = min + count;
+        counter.error = min + error;
+        counters.put(item, counter);
+        siftDown(0);
+    }
+
+    /*
+     *  두 요약을 합친다. (Agarwal et al., Mergeable Summaries)
+     *  한쪽 요약이 추적하지 않는 원소의 실제 빈도는 그 요약의 min(가득 차지 않았으면 0) 이하이다.
+     *  그래서 한쪽에만 있는 원소에는 다른 쪽의 min 을 카운트와 오차에 더하고, 합친 카운터 중 카운트가 큰 capacity 개만 남긴다.
+     *  other 의 카운터를 add 로 하나씩 넣으면 min 을 빼앗기는 순서에 따라 카운트가 실제 빈도보다 작아질 수 있다.
+     */
+    SpaceSaving<T> merge(SpaceSaving<T> other) {
+        long min = minCount();
+        long otherMin = other.minCount();
+
+        List<Counter<T>> merged = new ArrayList<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            Counter<T> c = heap[i];
+            Counter<T> o = other.counters.get(c.item);
+            c.count += o != null ? o.count : otherMin;
+            c.error += o != null ? o.error : otherMin;
+            merged.add(c);
+        }
+        for (int i = 0; i < other.size; i++) {
+            Counter<T> o = other.heap[i];
+            if (!counters.containsKey(o.item)) {
+                merged.add(new Counter<>(o.item, o.count + min, o.error + min));
+            }
+        }
+        if (merged.size() > capacity) {
+            merged.sort((a, b) -> Long.compare(b.count, a.count));
+            merged = merged.subList(0, capacity);
+        }
+
+        counters.clear();
+        size = merged.size();
+        for (int i = 0; i < size; i++) {
+            Counter<T> c = merged.get(i);
+            place(c, i);
+            counters.put(c.item, c);
+        }
+        Arrays.fill(heap, size, capacity, null);
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        return this;
+    }
+
+    /*
+     *  추정 빈도가 높은 순서대로 최대 k개를 반환한다. value 는 추정 빈도(실제 빈도 이상)이다.
+     */
+    List<Map.Entry<T, Long>> topK(int k) {
+        return Arrays.stream(heap, 0, size)
+                .map(c -> Map.entry(c.item, c.count))
+                .collect(TopK.topK(k, Map.Entry.comparingByValue()));
+    }
+
+    long estimate(T item) {
+        Counter<T> counter = counters.get(item);
+        return counter == null ? 0 : counter.count;
+    }
+
+    long error(T item) {
+        Counter<T> counter = counters.get(item);
+        return counter == null ? 0 : counter.error;
+    }
+
+    // 추적하지 않는 원소의 실제 빈도는 이 값 이하이다.
+    private long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    private void siftUp(int i) {
+        Counter<T> c = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= c.count) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(c, i);
+    }
+
+    private void siftDown(int i) {
+        Counter<T> c = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (c.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(c, i);
+    }
+
+    private void place(Counter<T> c, int i) {
+        heap[i] = c;
+        c.index = i;
+    }
+
+    private static final class Counter<T> {
+        T item;
+        long count;
+        long error;
+        int index;
+
+        Counter(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package example.item46;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ *  토큰의 소문자 형태를 하나의 String 인스턴스로 모아 주는 인터너(interner). 여러 스레드가 함께 쓸 수 있다.
+ *
+ *  token.toLowerCase() 는 대문자가 섞인 토큰마다 새 String 을 만든다. 같은 단어가 수백만 번 나오면 같은 내용의 String 이 수백만 개 만들어진다.
+ *  여기서는 원본 글자(char 나 바이트)를 읽으면서 바로 소문자의 해시를 구하고, 이미 만든 String 과 글자 단위로 비교한다.
+ *  찾으면 그 String 을 돌려주므로 임시 String 을 만들지 않는다. 처음 보는 단어일 때만 String 을 하나 만든다.
+ *  이득은 할당량과 붙잡는 힙이다. 토큰 하나를 처리하는 CPU 시간은 JVM 이 최적화해 둔 toLowerCase 보다 오히려 조금 길다. (FrequencyBenchmark)
+ *
+ *  - 크기가 정해진 표다. 해시로 정한 버킷(way 4 개) 중 비어 있거나 GC 된 칸에 넣고, 없으면 돌아가며 덮어쓴다.
+ *    그래서 어휘가 아무리 많아도 표는 커지지 않는다. 밀려난 단어가 다시 나오면 String 을 새로 만들 뿐이다.
+ *  - 항목은 WeakReference 로 들고 있다. 인터너가 붙잡고 있어서 String 이 회수되지 못하는 일은 없다.
+ *  - 락이 없다. 칸은 AtomicReferenceArray 로 읽고 쓴다. 두 스레드가 같은 새 단어를 동시에 넣으면 같은 내용의 String 이 둘 생길 수 있지만
+ *    둘 다 올바른 소문자 형태이므로 결과는 같다. (같은 인스턴스라는 보장은 최선일 뿐이다. == 로 비교하지 말고 equals 로 비교한다.)
+ *  - 결과는 String.toLowerCase() (기본 로케일)와 같다. 글자 하나씩 바꿔서는 같은 결과가 나오지 않는 경우
+ *    (그리스어 Σ, İ, 서로게이트 쌍, 터키어 / 아제르바이잔어 / 리투아니아어 로케일)는 toLowerCase 로 만든 뒤 인터닝한다.
+ *    기본 로케일은 호출할 때마다 확인하므로 Locale.setDefault 로 바꿔도 toLowerCase 와 같다.
+ *  - UTF-8 바이트는 글자 단위로 바로 디코딩하면서 해시를 구하고 비교한다. ASCII 가 아니어도 BMP 글자(한글, 라틴 확장 등)면
+ *    이미 있는 단어를 찾을 때 아무것도 할당하지 않는다. 4 바이트 문자나 잘못된 UTF-8 은 String 으로 디코딩해서 처리한다.
+ */
+final class TokenInterner {
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int WAYS = 4;
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int bucketMask;
+
+    TokenInterner() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /*
+     *  capacity 는 담을 수 있는 최대 단어 수. 4 이상의 2 의 거듭제곱으로 올린다.
+     */
+    TokenInterner(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 는 0 보다 커야 합니다: " + capacity);
+        }
+        int size = Math.max(WAYS, Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1);
+        this.table = new AtomicReferenceArray<>(size);
+        this.bucketMask = size / WAYS - 1;
+    }
+
+    int capacity() {
+        return table.length();
+    }
+
+    String lowerCase(CharSequence token) {
+        return lowerCase(token, 0, token.length());
+    }
+
+    /*
+     *  token 의 [start, end) 구간을 소문자로 바꾼 String
+     */
+    String lowerCase(CharSequence token, int start, int end) {
+        if (!localeSafe()) {
+            return intern(token.subSequence(start, end).toString().toLowerCase());
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = token.charAt(i);
+            if (!simple(c)) {
+                return intern(token.subSequence(start, end).toString().toLowerCase());
+            }
+            hash = 31 * hash + lower(c);
+        }
+        String found = find(hash, token, start, end);
+        if (found != null) {
+            return found;
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = lower(token.charAt(i));
+        }
+        return add(hash, new String(chars));
+    }
+
+    /*
+     *  UTF-8 바이트 [start, end) 를 디코딩해서 소문자로 바꾼 String. 임시 String 이나 byte[] 없이 바이트에서 바로 찾는다.
+     */
+    String lowerCase(ByteBuffer utf8, int start, int end) {
+        if (!localeSafe()) {
+            return lowerCase(decode(utf8, start, end));
+        }
+        int hash = 0;
+        boolean ascii = true;
+        for (int i = start; i < end; ) {
+            int decoded = decodeChar(utf8, i, end);
+            if (decoded < 0 || !simple((char) decoded)) {
+                return lowerCase(decode(utf8, start, end));
+            }
+            hash = 31 * hash + lower((char) decoded);
+            ascii &= decoded < 0x80;
+            i += decoded >>> 16;
+        }
+        String found = findUtf8(hash, utf8, start, end);
+        if (found != null) {
+            return found;
+        }
+        if (ascii) {
+            byte[] bytes = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                bytes[i - start] = lowerAscii(utf8.get(i));
+            }
+            return add(hash, new String(bytes, StandardCharsets.ISO_8859_1));
+        }
+        char[] chars = new char[end - start];
+        int length = 0;
+        for (int i = start; i < end; ) {
+            int decoded = decodeChar(utf8, i, end);
+            chars[length++] = lower((char) decoded);
+            i += decoded >>> 16;
+        }
+        return add(hash, new String(chars, 0, length));
+    }
+
+    String lowerCase(byte[] utf8, int start, int end) {
+        return lowerCase(ByteBuffer.wrap(utf8), start, end);
+    }
+
+    /*
+     *  이미 소문자인 String 을 인터닝한다.
+     */
+    private String intern(String lower) {
+        int hash = lower.hashCode();
+        String found = find(hash, lower, 0, lower.length());
+        return found != null ? found : add(hash, lower);
+    }
+
+    // 소문자의 String.hashCode 와 같은 해시를 쓰므로 새로 만든 String 의 해시를 다시 계산하지 않아도 된다.
+    private String find(int hash, CharSequence token, int start, int end) {
+        int base = bucket(hash);
+        for (int way = 0; way < WAYS; way++) {
+            Entry entry = table.get(base + way);
+            if (entry != null && entry.hash == hash) {
+                String s = entry.get();
+                if (s != null && matches(s, token, start, end)) {
+                    return s;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String findUtf8(int hash, ByteBuffer utf8, int start, int end) {
+        int base = bucket(hash);
+        for (int way = 0; way < WAYS; way++) {
+            Entry entry = table.get(base + way);
+            if (entry != null && entry.hash == hash) {
+                String s = entry.get();
+                if (s != null && matchesUtf8(s, utf8, start, end)) {
+                    return s;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String add(int hash, String lower) {
+        int base = bucket(hash);
+        int victim = base + (hash >>> 28 & WAYS - 1);  // 빈 칸이 없으면 해시로 고른 칸을 덮어쓴다.
+        for (int way = 0; way < WAYS; way++) {
+            Entry entry = table.get(base + way);
+            if (entry == null || entry.get() == null) {
+                victim = base + way;
+                break;
+            }
+        }
+        table.set(victim, new Entry(lower, hash));
+        return lower;
+    }
+
+    private int bucket(int hash) {
+        int h = hash * 0x9E3779B9;
+        return ((h ^ h >>> 16) & bucketMask) * WAYS;
+    }
+
+    private static boolean matches(String lower, CharSequence token, int start, int end) {
+        if (lower.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (lower.charAt(i - start) != lower(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // lowerCase(ByteBuffer, ..) 가 이미 한 번 디코딩에 성공한 구간에만 부른다.
+    private static boolean matchesUtf8(String lower, ByteBuffer utf8, int start, int end) {
+        int length = lower.length();
+        int n = 0;
+        for (int i = start; i < end; n++) {
+            int decoded = decodeChar(utf8, i, end);
+            if (n == length || lower.charAt(n) != lower((char) decoded)) {
+                return false;
+            }
+            i += decoded >>> 16;
+        }
+        return n == length;
+    }
+
+    /*
+     *  String.toLowerCase 가 이 글자를 Character.toLowerCase(c) 로만 바꾸는지
+     */
+    private static boolean simple(char c) {
+        return c < 0x80 || !Character.isSurrogate(c) && c != 'Σ' && c != 'İ';
+    }
+
+    // 터키어 / 아제르바이잔어 / 리투아니아어는 ASCII 글자(I 등)도 소문자 규칙이 다르다. (String.toLowerCase 가 같은 검사를 한다.)
+    static boolean localeSafe() {
+        String language = Locale.getDefault().getLanguage();
+        return !(language.equals("tr") || language.equals("az") || language.equals("lt"));
+    }
+
+    /*
+     *  utf8[i] 에서 시작하는 BMP 글자 하나를 (바이트 수 << 16 | 글자) 로 돌려준다.
+     *  4 바이트 문자(서로게이트 쌍)이거나 잘못된 UTF-8(짧게 잘림, 과잉 길이, 서로게이트 값)이면 -1
+     */
+    private static int decodeChar(ByteBuffer utf8, int i, int end) {
+        int b = utf8.get(i);
+        if (b >= 0) {
+            return 1 << 16 | b;
+        }
+        if ((b & 0xE0) == 0xC0 && i + 1 < end) {
+            int b1 = utf8.get(i + 1);
+            int c = (b & 0x1F) << 6 | (b1 & 0x3F);
+            if ((b1 & 0xC0) == 0x80 && c >= 0x80) {
+                return 2 << 16 | c;
+            }
+        } else if ((b & 0xF0) == 0xE0 && i + 2 < end) {
+            int b1 = utf8.get(i + 1);
+            int b2 = utf8.get(i + 2);
+            int c = (b & 0x0F) << 12 | (b1 & 0x3F) << 6 | (b2 & 0x3F);
+            if ((b1 & 0xC0) == 0x80 && (b2 & 0xC0) == 0x80 && c >= 0x800 && !Character.isSurrogate((char) c)) {
+                return 3 << 16 | c;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer utf8, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        utf8.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 대부분의 토큰은 ASCII 라서 Character.toLowerCase 의 표 조회를 건너뛴다.
+    private static char lower(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static byte lowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static final class Entry extends WeakReference<String> {
+        final int hash;
+
+        Entry(String referent, int hash) {
+            super(referent);
+            this.hash = hash;
+        }
+    }
+}
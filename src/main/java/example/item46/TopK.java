@@ -0,0 +1,47 @@
+package example.item46;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+/*
+ *  스트림에서 상위 k개 원소만 모으는 수집기.
+ *
+ *  sorted(...).limit(k) 는 원소 n개를 모두 정렬하므로 O(n log n)이다.
+ *  크기가 k로 제한된 최소 힙을 유지하면서 힙의 최솟값보다 큰 원소만 교체하면 O(n log k)로 끝나고 메모리도 k개만 쓴다.
+ *  병렬 스트림에서는 스레드별로 만든 힙을 합친다.
+ */
+final class TopK {
+    private TopK() {}
+
+    /*
+     *  comparator 기준으로 큰 순서대로 최대 k개를 담은 리스트를 반환한다.
+     */
+    static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k 는 0 이상이어야 합니다.");
+        }
+        return Collector.of(
+                () -> new PriorityQueue<T>(Math.max(1, k), comparator),
+                (heap, e) -> offer(heap, e, k, comparator),
+                (left, right) -> {
+                    for (T e : right) {
+                        offer(left, e, k, comparator);
+                    }
+                    return left;
+                },
+                heap -> {
+                    List<T> result = new ArrayList<>(heap);
+                    result.sort(comparator.reversed());
+                    return result;
+                });
+    }
+
+    private static <T> void offer(PriorityQueue<T> heap, T e, int k, Comparator<? super T> comparator) {
+        if (heap.size() < k) {
+            heap.add(e);
+        } else if (k > 0 && comparator.compare(e, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(e);
+        }
+    }
+}